@@ -0,0 +1,133 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import catalog.Book;
+import catalog.BookDataGenerator;
+import catalog.CatalogStore;
+import catalog.Library;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: LibraryJmhBenchmark
+ * Description: JMH benchmarks of the Library hot paths (lookup, checkout/checkin, removal,
+ * load, save and display) over catalogs of 1K to 10M books from BookDataGenerator, whose
+ * fixed seed makes every run measure the same data. Each benchmark returns its result, so
+ * JMH consumes it, and leaves the catalog the size it found it.
+ * Build with "mvn package" and run, for example:
+ *   java -jar benchmarks/target/benchmarks.jar -p size=1000,10000 -p store=file,memory
+ * The 10M catalog needs a large heap: add -jvmArgsAppend -Xmx8g.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LibraryJmhBenchmark {
+
+    /**
+     * A generated catalog in a books file and the Library on it, built once per trial.
+     */
+    @State(Scope.Benchmark)
+    public static class Catalog {
+        @Param({"1000", "10000", "100000", "1000000", "10000000"})
+        public int size;
+
+        // file or memory; memory reads the same file but never writes it
+        @Param({CatalogStore.FILE})
+        public String store;
+
+        Path directory;
+        String fileName;
+        List<Book> generated;
+        Library library;
+        Random random;
+        private PrintStream console;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("library-jmh");
+            fileName = directory.resolve("books.txt").toString();
+            generated = new BookDataGenerator(BookDataGenerator.DEFAULT_SEED).generate(size);
+            Files.write(Path.of(fileName), generated.stream().map(Book::toFileString).toList());
+
+            // Library reports every save and load on stdout; silence it while measuring
+            console = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            library = new Library(CatalogStore.open(store, fileName));
+            random = new Random(BookDataGenerator.DEFAULT_SEED);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            library.close();
+            System.setOut(console);
+            try (var files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+
+        Book randomBook() {
+            return generated.get(random.nextInt(size));
+        }
+    }
+
+    @Benchmark
+    public Book findBookByTitle(Catalog catalog) {
+        return catalog.library.findBookByTitle(catalog.randomBook().getTitle());
+    }
+
+    @Benchmark
+    public boolean checkOutBookCheckInBook(Catalog catalog) {
+        Book book = catalog.library.checkOutBook(catalog.randomBook().getTitle());
+        return book != null && catalog.library.checkInBook(book.getTitle());
+    }
+
+    // Puts a copy of the removed book back, so the catalog keeps its size
+    @Benchmark
+    public boolean removeBookByBarcodeAddBook(Catalog catalog) {
+        Book book = catalog.library.findBookByBarcode(catalog.randomBook().getBarcode());
+        catalog.library.removeBookByBarcode(book.getBarcode());
+        return catalog.library.addBook(new Book(book.getId(), book.getTitle(), book.getAuthor(), book.getBarcode(),
+                book.isAvailable(), book.getDueDate(), book.getCheckoutDate()));
+    }
+
+    @Benchmark
+    public int loadBooksFromFile(Catalog catalog) {
+        catalog.library.loadBooksFromFile(catalog.fileName);
+        return catalog.library.getBooks().size();
+    }
+
+    @Benchmark
+    public void saveBooksToFile(Catalog catalog) {
+        catalog.library.saveBooksToFile();
+    }
+
+    @Benchmark
+    public void displayDatabase(Catalog catalog) {
+        catalog.library.displayDatabase();
+    }
+}
@@ -0,0 +1,290 @@
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import catalog.Book;
+import catalog.BookRecordReader;
+import catalog.StringPool;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: BookColumnStore
+ * Description: Compact columnar storage for large catalogs. Each field lives in a
+ * primitive array indexed by row: IDs in an int[], availability in a bitset, dates as
+ * epoch days, numeric barcodes packed into a long[], and titles/authors as references
+ * into a shared StringPool. Rows are read back through BookView, a Book whose getters
+ * and setters go straight to the columns, so callers keep using the Book API.
+ */
+public class BookColumnStore {
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final long NON_NUMERIC = -1L;
+    private static final int MAX_PACKED_DIGITS = 18;
+
+    private final StringPool strings = new StringPool();
+    private int size;
+    private int[] ids;
+    private int[] titleRefs;
+    private int[] authorRefs;
+    private long[] barcodes;
+    private long[] availableBits;
+    private int[] dueDays;
+    private int[] checkoutDays;
+
+    // Barcodes that cannot be packed (letters, leading zeros, too long), keyed by row
+    private final Map<Integer, String> otherBarcodes = new HashMap<>();
+
+    /**
+     * Constructor for the BookColumnStore class.
+     * @param initialCapacity Number of rows to allocate up front.
+     */
+    public BookColumnStore(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        ids = new int[capacity];
+        titleRefs = new int[capacity];
+        authorRefs = new int[capacity];
+        barcodes = new long[capacity];
+        availableBits = new long[(capacity + 63) >>> 6];
+        dueDays = new int[capacity];
+        checkoutDays = new int[capacity];
+    }
+
+    /**
+     * Method to load a books file into a new store.
+     * @param fileName The file in the Book.toFileString() format.
+     * @return The populated store.
+     * @throws IOException If the file cannot be read.
+     */
+    public static BookColumnStore load(String fileName) throws IOException {
+        BookColumnStore store = new BookColumnStore(1024);
+        try (BookRecordReader reader = BookRecordReader.open(fileName, null)) {
+            Book book;
+            while ((book = reader.next()) != null) {
+                store.add(book);
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Method to append a book's fields as a new row.
+     * @param book The book to copy into the store.
+     * @return The row the book was stored in.
+     */
+    public int add(Book book) {
+        if (size == ids.length) {
+            grow();
+        }
+        int row = size++;
+        ids[row] = book.getId();
+        titleRefs[row] = strings.intern(book.getTitle());
+        authorRefs[row] = strings.intern(book.getAuthor());
+        setBarcode(row, book.getBarcode());
+        setAvailable(row, book.isAvailable());
+        setDueDate(row, book.getDueDate());
+        setCheckoutDate(row, book.getCheckoutDate());
+        return row;
+    }
+
+    /**
+     * Method to remove a row by moving the last row into its place.
+     * @param row The row to remove.
+     * @return The row whose contents moved into the removed row, or -1 if it was the last row.
+     */
+    public int remove(int row) {
+        int last = --size;
+        otherBarcodes.remove(row);
+        if (row == last) {
+            return -1;
+        }
+        ids[row] = ids[last];
+        titleRefs[row] = titleRefs[last];
+        authorRefs[row] = authorRefs[last];
+        barcodes[row] = barcodes[last];
+        String lastBarcode = otherBarcodes.remove(last);
+        if (lastBarcode != null) {
+            otherBarcodes.put(row, lastBarcode);
+        }
+        setAvailable(row, isAvailable(last));
+        dueDays[row] = dueDays[last];
+        checkoutDays[row] = checkoutDays[last];
+        return last;
+    }
+
+    /**
+     * Method to get a flyweight Book over one row. Views are cheap and not cached;
+     * changes made through a view are written to the store.
+     * @param row The row to view.
+     * @return A Book backed by the row.
+     */
+    public Book view(int row) {
+        return new BookView(this, row);
+    }
+
+    /**
+     * Method to get the number of rows.
+     * @return The number of books in the store.
+     */
+    public int size() {
+        return size;
+    }
+
+    // Column accessors
+
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    public String getTitle(int row) {
+        return strings.get(titleRefs[row]);
+    }
+
+    public String getAuthor(int row) {
+        return strings.get(authorRefs[row]);
+    }
+
+    public String getBarcode(int row) {
+        long packed = barcodes[row];
+        return packed == NON_NUMERIC ? otherBarcodes.get(row) : Long.toString(packed);
+    }
+
+    public boolean isAvailable(int row) {
+        return (availableBits[row >>> 6] & (1L << row)) != 0;
+    }
+
+    public void setAvailable(int row, boolean available) {
+        if (available) {
+            availableBits[row >>> 6] |= 1L << row;
+        } else {
+            availableBits[row >>> 6] &= ~(1L << row);
+        }
+    }
+
+    public LocalDate getDueDate(int row) {
+        return toDate(dueDays[row]);
+    }
+
+    public void setDueDate(int row, LocalDate dueDate) {
+        dueDays[row] = toEpochDay(dueDate);
+    }
+
+    public LocalDate getCheckoutDate(int row) {
+        return toDate(checkoutDays[row]);
+    }
+
+    public void setCheckoutDate(int row, LocalDate checkoutDate) {
+        checkoutDays[row] = toEpochDay(checkoutDate);
+    }
+
+    private void setBarcode(int row, String barcode) {
+        long packed = pack(barcode);
+        barcodes[row] = packed;
+        if (packed == NON_NUMERIC) {
+            otherBarcodes.put(row, barcode);
+        }
+    }
+
+    /**
+     * Method to pack a barcode into a long when that round-trips exactly
+     * (digits only, no leading zero, at most 18 digits).
+     */
+    private static long pack(String barcode) {
+        if (barcode == null || barcode.isEmpty() || barcode.length() > MAX_PACKED_DIGITS
+                || (barcode.charAt(0) == '0' && barcode.length() > 1)) {
+            return NON_NUMERIC;
+        }
+        long value = 0;
+        for (int i = 0; i < barcode.length(); i++) {
+            char c = barcode.charAt(i);
+            if (c < '0' || c > '9') {
+                return NON_NUMERIC;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int toEpochDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    private static LocalDate toDate(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        titleRefs = Arrays.copyOf(titleRefs, capacity);
+        authorRefs = Arrays.copyOf(authorRefs, capacity);
+        barcodes = Arrays.copyOf(barcodes, capacity);
+        availableBits = Arrays.copyOf(availableBits, (capacity + 63) >>> 6);
+        dueDays = Arrays.copyOf(dueDays, capacity);
+        checkoutDays = Arrays.copyOf(checkoutDays, capacity);
+    }
+
+    /**
+     * A Book that holds no data of its own and reads and writes one store row.
+     */
+    private static final class BookView extends Book {
+        private final BookColumnStore store;
+        private final int row;
+
+        BookView(BookColumnStore store, int row) {
+            super(0, null, null, null, false, null, null);
+            this.store = store;
+            this.row = row;
+        }
+
+        @Override
+        public int getId() {
+            return store.getId(row);
+        }
+
+        @Override
+        public String getTitle() {
+            return store.getTitle(row);
+        }
+
+        @Override
+        public String getAuthor() {
+            return store.getAuthor(row);
+        }
+
+        @Override
+        public String getBarcode() {
+            return store.getBarcode(row);
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return store.isAvailable(row);
+        }
+
+        @Override
+        public void setAvailable(boolean available) {
+            store.setAvailable(row, available);
+        }
+
+        @Override
+        public LocalDate getDueDate() {
+            return store.getDueDate(row);
+        }
+
+        @Override
+        public void setDueDate(LocalDate dueDate) {
+            store.setDueDate(row, dueDate);
+        }
+
+        @Override
+        public LocalDate getCheckoutDate() {
+            return store.getCheckoutDate(row);
+        }
+
+        @Override
+        public void setCheckoutDate(LocalDate checkoutDate) {
+            store.setCheckoutDate(row, checkoutDate);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import catalog.Book;
+import catalog.BookDataGenerator;
+import catalog.BookRecordReader;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: BookLoaderBenchmark
+ * Description: Compares the original split(",") loader with BookRecordReader
+ * on a generated catalog, reporting time, lines per second and bytes allocated.
+ * Usage: java BookLoaderBenchmark [lines] [iterations]
+ */
+public class BookLoaderBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Path file = Files.createTempFile("books-benchmark", ".txt");
+        try {
+            new BookDataGenerator(BookDataGenerator.DEFAULT_SEED).writeFile(file, lines);
+            long bytes = Files.size(file);
+            System.out.printf("Catalog: %,d lines, %,d bytes%n", lines, bytes);
+
+            for (int i = 0; i < 2; i++) { // warm up both paths
+                loadWithSplit(file.toString());
+                loadWithRecordReader(file.toString());
+            }
+            report("split(\",\") loader", iterations, lines, bytes, () -> loadWithSplit(file.toString()));
+            report("BookRecordReader", iterations, lines, bytes, () -> loadWithRecordReader(file.toString()));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private interface Loader {
+        List<Book> load() throws IOException;
+    }
+
+    private static void report(String name, int iterations, int lines, long bytes, Loader loader) throws IOException {
+        long best = Long.MAX_VALUE;
+        long allocated = 0;
+        for (int i = 0; i < iterations; i++) {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            List<Book> books = loader.load();
+            long elapsed = System.nanoTime() - start;
+            allocated = allocatedBytes() - allocatedBefore;
+            best = Math.min(best, elapsed);
+            if (books.size() != lines) {
+                throw new IllegalStateException(name + " loaded " + books.size() + " of " + lines + " books");
+            }
+        }
+        double seconds = best / 1e9;
+        System.out.printf("%-20s best %,8.1f ms  %,12.0f lines/s  %,8.1f MB/s  %,8.1f MB allocated%n",
+                name, best / 1e6, lines / seconds, bytes / seconds / 1e6, allocated / 1e6);
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    /**
+     * The loader Library used before BookRecordReader, kept here as the baseline.
+     */
+    private static List<Book> loadWithSplit(String fileName) throws IOException {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        List<Book> books = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length >= 6) {
+                    int bookID = Integer.parseInt(parts[0]);
+                    boolean available = Boolean.parseBoolean(parts[4]);
+                    LocalDate dueDate = available ? null : LocalDate.parse(parts[5], formatter);
+                    books.add(new Book(bookID, parts[1], parts[2], parts[3], available, dueDate, null));
+                }
+            }
+        }
+        return books;
+    }
+
+    private static List<Book> loadWithRecordReader(String fileName) throws IOException {
+        List<Book> books = new ArrayList<>();
+        try (BookRecordReader reader = BookRecordReader.open(fileName, null)) {
+            Book book;
+            while ((book = reader.next()) != null) {
+                books.add(book);
+            }
+        }
+        return books;
+    }
+}
@@ -0,0 +1,58 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import catalog.Book;
+import catalog.BookDataGenerator;
+import catalog.BookRecordReader;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: BookMemoryFootprint
+ * Description: Compares the retained heap of a catalog held as Book objects (as Library
+ * keeps it, without its indexes) with the same catalog in a BookColumnStore.
+ * Usage: java BookMemoryFootprint [books]   (default 1000000)
+ */
+public class BookMemoryFootprint {
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path file = Files.createTempFile("books-footprint", ".txt");
+        try {
+            new BookDataGenerator(BookDataGenerator.DEFAULT_SEED).writeFile(file, count);
+
+            long baseline = usedHeap();
+            List<Book> books = new ArrayList<>();
+            try (BookRecordReader reader = BookRecordReader.open(file.toString(), null)) {
+                Book book;
+                while ((book = reader.next()) != null) {
+                    books.add(book);
+                }
+            }
+            long objectBytes = usedHeap() - baseline;
+            int loaded = books.size();
+            books = null; // release before measuring the store
+
+            baseline = usedHeap();
+            BookColumnStore store = BookColumnStore.load(file.toString());
+            long columnBytes = usedHeap() - baseline;
+
+            System.out.printf("%,d books%n", loaded);
+            System.out.printf("%-20s %,14d bytes  %,6.1f bytes/book%n", "Book objects", objectBytes, (double) objectBytes / loaded);
+            System.out.printf("%-20s %,14d bytes  %,6.1f bytes/book%n", "BookColumnStore", columnBytes, (double) columnBytes / store.size());
+            System.out.printf("Column store uses %.1f%% of the object heap%n", 100.0 * columnBytes / objectBytes);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,667 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import catalog.Book;
+import catalog.CatalogStore;
+import catalog.Library;
+import catalog.LibraryOperations;
+import catalog.TitleHoldings;
+import metrics.Metrics;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: CirculationHttpServer
+ * Description: Embedded HTTP/JSON circulation service, so self-service kiosks and scanners
+ * share one catalog. Every request goes through LibraryOperations, so the Library stays on
+ * its own thread; the JSON is written on that thread too, so no book is read while it
+ * changes. Requests run on virtual threads when the JDK has them (Java 21 and later),
+ * otherwise on a fixed pool; either way a request thread only waits for the library.
+ *
+ * Endpoints (request and response bodies are JSON):
+ *     GET  /books?barcode=B            the copy with barcode B
+ *     GET  /books?title=T              every copy of title T, with copy and availability counts
+ *     GET  /books?after=ID&limit=N     a page of books in ID order; "next" is the after= of the next page
+ *     POST /checkout        {"title": T}            checks out a copy of T
+ *     POST /checkin         {"title": T}            checks in a copy of T
+ *     POST /checkout/batch  {"titles": [T, ...]}    several checkouts, saved with one write
+ *     POST /checkin/batch   {"titles": [T, ...]}    several check-ins, saved with one write
+ *     POST /scans  {"barcode": B, "action": "checkin" or "checkout"}
+ *                  queues a scanner read for the ScanIngestPipeline and answers 202 at once
+ *     GET  /metrics     operation counts and latencies, in the Prometheus text format (not JSON)
+ * Failures are answered with {"error": message} and status 400, 404, 405, 409 or 413, with
+ * 500 when a change or batch could not be saved (nothing is applied then), and with 503 when
+ * the scan queue stays full for a second.
+ * Usage: java CirculationHttpServer [port] [books file]   (default 8080 books.txt)
+ * With -Dlibrary.store=sqlite the second argument is a JDBC URL (default LMSlibrary.db).
+ */
+public class CirculationHttpServer {
+    private static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 1_000;
+    private static final int MAX_BODY_BYTES = 1024 * 1024;
+    // Only used before Java 21; request threads mostly wait for the library thread
+    private static final int FALLBACK_THREADS = 64;
+    private static final long SCAN_QUEUE_WAIT_MILLIS = 1000;
+
+    static {
+        // The JDK server writes headers and body separately; without TCP_NODELAY small
+        // responses wait for the client's delayed ACK (about 40 ms). Read once, when the
+        // first server is created; an explicit -D setting wins.
+        System.getProperties().putIfAbsent("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final LibraryOperations operations;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ScanIngestPipeline scans;
+
+    /**
+     * Constructor for the CirculationHttpServer class. Call start() to accept requests.
+     * @param operations The library to serve, through its operations thread.
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be opened.
+     */
+    public CirculationHttpServer(LibraryOperations operations, int port) throws IOException {
+        this.operations = operations;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = newRequestExecutor();
+        this.scans = new ScanIngestPipeline(operations, null);
+        server.setExecutor(executor);
+        server.createContext("/books", exchange -> handle(exchange, "GET", "/books", this::books));
+        server.createContext("/checkout", exchange -> handle(exchange, "POST", "/checkout",
+                request -> circulate(request, true)));
+        server.createContext("/checkin", exchange -> handle(exchange, "POST", "/checkin",
+                request -> circulate(request, false)));
+        server.createContext("/checkout/batch", exchange -> handle(exchange, "POST", "/checkout/batch",
+                request -> circulateBatch(request, true)));
+        server.createContext("/checkin/batch", exchange -> handle(exchange, "POST", "/checkin/batch",
+                request -> circulateBatch(request, false)));
+        server.createContext("/scans", exchange -> handle(exchange, "POST", "/scans", this::scan));
+        server.createContext("/metrics", CirculationHttpServer::metrics);
+    }
+
+    /**
+     * Main method to run the circulation service until the process is stopped.
+     * @param args Optional port and books file.
+     * @throws IOException If the port or the catalog cannot be opened.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+
+        Metrics.startFileDumpIfConfigured();
+        CatalogStore store = args.length > 1
+                ? CatalogStore.open(System.getProperty("library.store", CatalogStore.FILE), args[1])
+                : CatalogStore.forSystemProperties("books.txt");
+        Library library = new Library(store);
+        library.enableJournal(1, 300);
+        LibraryOperations operations = new LibraryOperations(library);
+        CirculationHttpServer server = new CirculationHttpServer(operations, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            operations.shutdown().join();
+        }));
+        server.start();
+        System.out.println("Circulation service listening on http://localhost:" + server.getPort() + "/");
+    }
+
+    /**
+     * Method to start accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Method to stop accepting requests and apply the scans still queued.
+     * The library itself is left running.
+     * @param delaySeconds How long to let requests in progress finish.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        scans.close();
+    }
+
+    /**
+     * Getter method for the port the server listens on.
+     * @return The port, also when the server was created with port 0.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Method to create the executor for request handlers: one virtual thread per request
+     * when the JDK supports it, otherwise a fixed pool of daemon threads.
+     * @return The executor.
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(FALLBACK_THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "circulation-http-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // Endpoints
+
+    private Response books(HttpExchange exchange) {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String barcode = query.get("barcode");
+        String title = query.get("title");
+        if (barcode != null) {
+            return operations.submit(library -> {
+                Book book = library.findBookByBarcode(barcode);
+                return book == null ? Response.error(404, "No book with barcode " + barcode)
+                        : new Response(200, bookJson(book));
+            }).join();
+        }
+        if (title != null) {
+            return operations.submit(library -> {
+                TitleHoldings holdings = library.findHoldings(title);
+                if (holdings == null) {
+                    return Response.error(404, "No book titled " + title);
+                }
+                return new Response(200, "{\"title\":" + quote(holdings.getTitle())
+                        + ",\"copies\":" + holdings.getCopyCount()
+                        + ",\"available\":" + holdings.getAvailableCount()
+                        + ",\"books\":" + booksJson(holdings) + "}");
+            }).join();
+        }
+        Integer after = query.containsKey("after") ? Integer.valueOf(query.get("after")) : null;
+        int limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : DEFAULT_PAGE_SIZE;
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return operations.submit(library -> {
+            List<Book> page = library.booksAfterId(after, limit);
+            String next = page.size() < limit ? "null" : String.valueOf(page.get(page.size() - 1).getId());
+            return new Response(200, "{\"books\":" + booksJson(page) + ",\"next\":" + next + "}");
+        }).join();
+    }
+
+    private Response circulate(HttpExchange exchange, boolean checkOut) throws IOException {
+        String title = requireString(readJsonObject(exchange), "title");
+        return operations.submit(library -> circulate(library, title, checkOut)).join();
+    }
+
+    private Response circulateBatch(HttpExchange exchange, boolean checkOut) throws IOException {
+        List<String> titles = requireStrings(readJsonObject(exchange), "titles");
+        if (titles.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " titles per batch");
+        }
+        return operations.submit(library -> {
+            StringBuilder json = new StringBuilder("{\"results\":[");
+            boolean saved = false;
+            library.beginBatch();
+            try {
+                for (String title : titles) {
+                    Response result = circulate(library, title, checkOut);
+                    if (json.charAt(json.length() - 1) != '[') {
+                        json.append(',');
+                    }
+                    json.append("{\"status\":").append(result.status).append(",\"body\":").append(result.json).append('}');
+                }
+            } finally {
+                saved = library.commitBatch();
+            }
+            if (!saved) {
+                return Response.error(500, "The batch could not be saved; none of it was applied");
+            }
+            return new Response(200, json.append("]}").toString());
+        }).join();
+    }
+
+    private Response scan(HttpExchange exchange) throws IOException {
+        Map<String, Object> body = readJsonObject(exchange);
+        String barcode = requireString(body, "barcode");
+        String action = requireString(body, "action");
+        ScanIngestPipeline.Action scanAction;
+        if (action.equals("checkin")) {
+            scanAction = ScanIngestPipeline.Action.CHECK_IN;
+        } else if (action.equals("checkout")) {
+            scanAction = ScanIngestPipeline.Action.CHECK_OUT;
+        } else {
+            throw new IllegalArgumentException("action must be \"checkin\" or \"checkout\"");
+        }
+        try {
+            if (!scans.offer(barcode, scanAction, SCAN_QUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return Response.error(503, "Scan queue is full, try again");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Response.error(503, "Server is stopping");
+        } catch (IllegalStateException e) {
+            return Response.error(503, e.getMessage());
+        }
+        return new Response(202, "{\"queued\":true}");
+    }
+
+    // Runs on the library thread
+    private static Response circulate(Library library, String title, boolean checkOut) {
+        TitleHoldings holdings = library.findHoldings(title);
+        if (holdings == null) {
+            return Response.error(404, "No book titled " + title);
+        }
+        // 409 when no copy is in the right state, 500 when there was one but the store refused the change
+        if (checkOut) {
+            if (holdings.nextAvailable() == null) {
+                return Response.error(409, "No copy of " + title + " is available");
+            }
+            Book book = library.checkOutBook(title);
+            return book == null ? Response.error(500, "The checkout of " + title + " could not be saved")
+                    : new Response(200, bookJson(book));
+        }
+        Book book = holdings.nextCheckedOut(); // the copy checkInBook() returns to the shelf
+        if (book == null) {
+            return Response.error(409, "No copy of " + title + " is checked out");
+        }
+        return library.checkInBook(title) ? new Response(200, bookJson(book))
+                : Response.error(500, "The check-in of " + title + " could not be saved");
+    }
+
+    // Request handling
+
+    private interface Endpoint {
+        Response handle(HttpExchange exchange) throws IOException;
+    }
+
+    private static final class Response {
+        final int status;
+        final String json;
+
+        Response(int status, String json) {
+            this.status = status;
+            this.json = json;
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, "{\"error\":" + quote(message) + "}");
+        }
+    }
+
+    private static void handle(HttpExchange exchange, String method, String path, Endpoint endpoint) throws IOException {
+        try {
+            Response response;
+            if (!exchange.getRequestURI().getPath().equals(path)) {
+                response = Response.error(404, "Unknown path " + exchange.getRequestURI().getPath());
+            } else if (!exchange.getRequestMethod().equals(method)) {
+                exchange.getResponseHeaders().set("Allow", method);
+                response = Response.error(405, "Use " + method + " for " + path);
+            } else {
+                try {
+                    response = endpoint.handle(exchange);
+                } catch (BodyTooLargeException e) {
+                    response = Response.error(413, e.getMessage());
+                } catch (IllegalArgumentException e) {
+                    response = Response.error(400, e.getMessage());
+                } catch (CompletionException e) {
+                    System.out.println("Error handling " + path + ": " + e.getCause());
+                    response = Response.error(500, "Internal error");
+                }
+            }
+            byte[] body = response.json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(response.status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Rendered off the library thread: the metrics are safe to read while they are recorded
+    private static void metrics(HttpExchange exchange) throws IOException {
+        try {
+            int status = 200;
+            String text = "";
+            if (!exchange.getRequestURI().getPath().equals("/metrics")) {
+                status = 404;
+            } else if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                status = 405;
+            } else {
+                text = Metrics.render();
+            }
+            byte[] body = text.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static final class BodyTooLargeException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        BodyTooLargeException() {
+            super("Request body is larger than " + MAX_BODY_BYTES + " bytes");
+        }
+    }
+
+    private static Map<String, Object> readJsonObject(HttpExchange exchange) throws IOException {
+        byte[] body = exchange.getRequestBody().readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            throw new BodyTooLargeException();
+        }
+        Object value = new JsonReader(new String(body, StandardCharsets.UTF_8)).readDocument();
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> object = (Map<String, Object>) value;
+        return object;
+    }
+
+    private static String requireString(Map<String, Object> object, String name) {
+        Object value = object.get(name);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("Expected a string \"" + name + "\"");
+        }
+        return (String) value;
+    }
+
+    private static List<String> requireStrings(Map<String, Object> object, String name) {
+        Object value = object.get(name);
+        if (value instanceof List) {
+            List<String> strings = new ArrayList<>();
+            for (Object item : (List<?>) value) {
+                if (!(item instanceof String)) {
+                    break;
+                }
+                strings.add((String) item);
+            }
+            if (strings.size() == ((List<?>) value).size()) {
+                return strings;
+            }
+        }
+        throw new IllegalArgumentException("Expected an array of strings \"" + name + "\"");
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    // JSON writing
+
+    static String bookJson(Book book) {
+        return "{\"id\":" + book.getId()
+                + ",\"title\":" + quote(book.getTitle())
+                + ",\"author\":" + quote(book.getAuthor())
+                + ",\"barcode\":" + quote(book.getBarcode())
+                + ",\"available\":" + book.isAvailable()
+                + ",\"dueDate\":" + quote(book.getDueDate() == null ? null : book.getDueDate().toString())
+                + ",\"checkoutDate\":" + quote(book.getCheckoutDate() == null ? null : book.getCheckoutDate().toString())
+                + "}";
+    }
+
+    private static String booksJson(List<Book> books) {
+        StringBuilder json = new StringBuilder("[");
+        for (Book book : books) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append(bookJson(book));
+        }
+        return json.append(']').toString();
+    }
+
+    static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    /**
+     * Small JSON reader for request bodies: objects become maps, arrays lists, numbers
+     * doubles. Malformed input, including objects and arrays nested deeper than MAX_DEPTH,
+     * is reported as an IllegalArgumentException.
+     */
+    private static final class JsonReader {
+        // Requests nest two levels; the limit keeps a body of "[[[..." from overflowing the stack
+        private static final int MAX_DEPTH = 32;
+
+        private final String text;
+        private int position;
+        private int depth;
+
+        JsonReader(String text) {
+            this.text = text;
+        }
+
+        Object readDocument() {
+            Object value = readValue();
+            skipWhitespace();
+            if (position != text.length()) {
+                throw syntaxError("end of input");
+            }
+            return value;
+        }
+
+        private Object readValue() {
+            skipWhitespace();
+            if (position >= text.length()) {
+                throw syntaxError("a value");
+            }
+            char c = text.charAt(position);
+            if (c == '{') {
+                return readObject();
+            } else if (c == '[') {
+                return readArray();
+            } else if (c == '"') {
+                return readString();
+            } else if (text.startsWith("true", position)) {
+                position += 4;
+                return Boolean.TRUE;
+            } else if (text.startsWith("false", position)) {
+                position += 5;
+                return Boolean.FALSE;
+            } else if (text.startsWith("null", position)) {
+                position += 4;
+                return null;
+            }
+            return readNumber();
+        }
+
+        private Map<String, Object> readObject() {
+            Map<String, Object> object = new LinkedHashMap<>();
+            enter();
+            position++; // {
+            skipWhitespace();
+            if (consume('}')) {
+                depth--;
+                return object;
+            }
+            do {
+                skipWhitespace();
+                if (position >= text.length() || text.charAt(position) != '"') {
+                    throw syntaxError("a member name");
+                }
+                String name = readString();
+                skipWhitespace();
+                expect(':');
+                object.put(name, readValue());
+                skipWhitespace();
+            } while (consume(','));
+            expect('}');
+            depth--;
+            return object;
+        }
+
+        private List<Object> readArray() {
+            List<Object> array = new ArrayList<>();
+            enter();
+            position++; // [
+            skipWhitespace();
+            if (consume(']')) {
+                depth--;
+                return array;
+            }
+            do {
+                array.add(readValue());
+                skipWhitespace();
+            } while (consume(','));
+            expect(']');
+            depth--;
+            return array;
+        }
+
+        private void enter() {
+            if (++depth > MAX_DEPTH) {
+                throw new IllegalArgumentException("Malformed JSON: nested deeper than " + MAX_DEPTH + " levels at offset " + position);
+            }
+        }
+
+        private String readString() {
+            StringBuilder value = new StringBuilder();
+            position++; // opening quote
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (position >= text.length()) {
+                    break;
+                }
+                char escape = text.charAt(position++);
+                switch (escape) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        value.append(escape);
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'u':
+                        if (position + 4 > text.length()) {
+                            throw syntaxError("four hex digits");
+                        }
+                        value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        position += 4;
+                        break;
+                    default:
+                        throw syntaxError("an escape sequence");
+                }
+            }
+            throw syntaxError("the end of the string");
+        }
+
+        private Double readNumber() {
+            int start = position;
+            while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+                position++;
+            }
+            if (start == position) {
+                throw syntaxError("a value");
+            }
+            return Double.valueOf(text.substring(start, position));
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        private boolean consume(char c) {
+            if (position < text.length() && text.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!consume(c)) {
+                throw syntaxError("'" + c + "'");
+            }
+        }
+
+        private IllegalArgumentException syntaxError(String expected) {
+            return new IllegalArgumentException("Malformed JSON: expected " + expected + " at offset " + position);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import catalog.Book;
+import catalog.Library;
+import catalog.LibraryOperations;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the circulation service over real HTTP against a library on a temporary file.
+ */
+class CirculationHttpServerTest {
+    private Path directory;
+    private LibraryOperations operations;
+    private CirculationHttpServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("circulation-http");
+        Path file = directory.resolve("books.txt");
+        List<String> lines = new ArrayList<>();
+        lines.add(new Book(1, "Dune", "Frank Herbert", "1001", true, null, null).toFileString());
+        lines.add(new Book(2, "Dune", "Frank Herbert", "1002", true, null, null).toFileString());
+        for (int i = 3; i <= 12; i++) {
+            lines.add(new Book(i, "Title " + i, "Author", String.valueOf(1000 + i), true, null, null).toFileString());
+        }
+        Files.write(file, lines);
+        operations = new LibraryOperations(new Library(file.toString()));
+        server = new CirculationHttpServer(operations, 0);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.stop(0);
+        operations.shutdown().join();
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    @DisplayName("Lookups by barcode and title and paged listing")
+    void testLookups() throws Exception {
+        HttpResponse<String> byBarcode = get("/books?barcode=1002");
+        assertEquals(200, byBarcode.statusCode());
+        assertTrue(byBarcode.body().contains("\"barcode\":\"1002\""));
+        assertEquals(404, get("/books?barcode=9999").statusCode());
+
+        HttpResponse<String> byTitle = get("/books?title=" + URLEncoder.encode(" dune", StandardCharsets.UTF_8));
+        assertEquals(200, byTitle.statusCode());
+        assertTrue(byTitle.body().startsWith("{\"title\":\"Dune\",\"copies\":2,\"available\":2,"));
+
+        // Pages follow the "next" cursor until it is null
+        HttpResponse<String> first = get("/books?limit=5");
+        assertTrue(first.body().endsWith(",\"next\":5}"));
+        HttpResponse<String> last = get("/books?after=10&limit=5");
+        assertTrue(last.body().contains("\"id\":12"));
+        assertTrue(last.body().endsWith(",\"next\":null}"));
+
+        assertEquals(400, get("/books?limit=0").statusCode());
+        assertEquals(405, post("/books", "{}").statusCode());
+        assertEquals(404, get("/booksx").statusCode());
+
+        HttpResponse<String> metrics = get("/metrics");
+        assertEquals(200, metrics.statusCode());
+        assertTrue(metrics.body().contains("# TYPE library_lookup_seconds summary"));
+    }
+
+    @Test
+    @DisplayName("Checkout and check-in, one at a time and in batches")
+    void testCirculation() throws Exception {
+        assertEquals(200, post("/checkout", "{\"title\": \"Dune\"}").statusCode());
+        assertEquals(200, post("/checkout", "{\"title\": \"Dune\"}").statusCode());
+        assertEquals(409, post("/checkout", "{\"title\": \"Dune\"}").statusCode());
+        assertEquals(404, post("/checkout", "{\"title\": \"Emma\"}").statusCode());
+        assertEquals(400, post("/checkout", "{\"name\": \"Dune\"}").statusCode());
+        assertEquals(400, post("/checkout", "{\"title\": ").statusCode());
+        assertEquals(400, post("/checkout", "[".repeat(1_000_000)).statusCode());
+
+        HttpResponse<String> checkedIn = post("/checkin", "{\"title\":\"Dune\"}");
+        assertEquals(200, checkedIn.statusCode());
+        assertTrue(checkedIn.body().contains("\"available\":true"));
+
+        HttpResponse<String> batch = post("/checkout/batch", "{\"titles\": [\"Dune\", \"Dune\", \"Title 3\"]}");
+        assertEquals(200, batch.statusCode());
+        assertTrue(batch.body().startsWith("{\"results\":[{\"status\":200,"));
+        assertTrue(batch.body().contains("{\"status\":409,\"body\":{\"error\":"));
+        assertEquals(2, operations.submit(library -> library.getTotalCopies("Dune")
+                - library.getAvailableCopies("Dune")).join());
+
+        HttpResponse<String> checkIns = post("/checkin/batch", "{\"titles\": [\"Dune\", \"Title 3\", \"Title 4\"]}");
+        assertTrue(checkIns.body().endsWith("{\"status\":409,\"body\":{\"error\":\"No copy of Title 4 is checked out\"}}]}"));
+        assertEquals(1, operations.submit(library -> library.getAvailableCopies("Dune")).join());
+
+        // Scans are queued and applied by the pipeline; stopping the server applies what is left
+        assertEquals(202, post("/scans", "{\"barcode\": \"1001\", \"action\": \"checkin\"}").statusCode());
+        assertEquals(202, post("/scans", "{\"barcode\": \"1002\", \"action\": \"checkin\"}").statusCode());
+        assertEquals(400, post("/scans", "{\"barcode\": \"1001\", \"action\": \"renew\"}").statusCode());
+        server.stop(0);
+        assertEquals(2, operations.submit(library -> library.getAvailableCopies("Dune")).join());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String json) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.ofString(json)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+}
@@ -0,0 +1,166 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import catalog.Book;
+import catalog.BookDataGenerator;
+import catalog.Library;
+import catalog.LibraryOperations;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: CirculationLoadTest
+ * Description: Load test for CirculationHttpServer. Starts a local instance on a generated
+ * catalog (BookDataGenerator, fixed seed), then lets a number of clients send requests
+ * back to back: 50% lookups by barcode, 20% by title, 10% pages of the listing and 20%
+ * checkout followed by check-in of the same title. After a warm-up it reports requests
+ * per second and the p50, p99 and maximum latency per request.
+ * The journal is not forced to disk (as in LibraryBenchmark), so the numbers show the
+ * service and the library thread, not the disk.
+ * Usage: java CirculationLoadTest [books] [clients] [seconds]   (default 100000 32 10)
+ * The warm-up is set with -Dload.warmupSeconds (default 3).
+ */
+public class CirculationLoadTest {
+    private static final long WARMUP_SECONDS = Long.getLong("load.warmupSeconds", 3);
+    private static final PrintStream CONSOLE = System.out;
+
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        long seconds = args.length > 2 ? Long.parseLong(args[2]) : 10;
+
+        Path directory = Files.createTempDirectory("circulation-load");
+        try {
+            String fileName = directory.resolve("books.txt").toString();
+            List<Book> generated = new BookDataGenerator(BookDataGenerator.DEFAULT_SEED).generate(size);
+            Files.write(Path.of(fileName), generated.stream().map(Book::toFileString).toList());
+
+            // Library reports every change on stdout; silence it while measuring
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            Library library = new Library(fileName);
+            library.enableJournal(0, 3600);
+            LibraryOperations operations = new LibraryOperations(library);
+            CirculationHttpServer server = new CirculationHttpServer(operations, 0);
+            server.start();
+            try {
+                String base = "http://localhost:" + server.getPort();
+                run(base, generated, clients, WARMUP_SECONDS, false);
+                run(base, generated, clients, seconds, true);
+            } finally {
+                server.stop(0);
+                operations.shutdown().join();
+            }
+        } finally {
+            System.setOut(CONSOLE);
+            deleteDirectory(directory);
+        }
+    }
+
+    private static void run(String base, List<Book> generated, int clients, long seconds, boolean report)
+            throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            Random random = new Random(BookDataGenerator.DEFAULT_SEED + c);
+            results.add(pool.submit(() -> {
+                long[] latencies = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    Book target = generated.get(random.nextInt(generated.size()));
+                    int kind = random.nextInt(10);
+                    for (HttpRequest request : requestsFor(base, target, kind)) {
+                        long start = System.nanoTime();
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        long latency = System.nanoTime() - start;
+                        if (response.statusCode() >= 500) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = latency;
+                    }
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+        long[] all = new long[0];
+        for (Future<long[]> result : results) {
+            long[] latencies = result.get();
+            int start = all.length;
+            all = Arrays.copyOf(all, start + latencies.length);
+            System.arraycopy(latencies, 0, all, start, latencies.length);
+        }
+        pool.shutdown();
+        if (!report) {
+            return;
+        }
+        Arrays.sort(all);
+        CONSOLE.printf("Books: %d, clients: %d, seconds: %d%n", generated.size(), clients, seconds);
+        CONSOLE.printf("Requests: %d (%.0f requests/s), server errors: %d%n", all.length,
+                all.length / (double) seconds, errors.get());
+        CONSOLE.printf("Latency p50: %.2f ms, p99: %.2f ms, max: %.2f ms%n",
+                percentile(all, 0.50) / 1e6, percentile(all, 0.99) / 1e6, all.length == 0 ? 0 : all[all.length - 1] / 1e6);
+    }
+
+    // The request mix: lookups by barcode and title, a page of the listing, checkout then check-in
+    private static List<HttpRequest> requestsFor(String base, Book target, int kind) {
+        String title = "{\"title\":" + CirculationHttpServer.quote(target.getTitle()) + "}";
+        if (kind < 5) {
+            return List.of(get(base + "/books?barcode=" + encode(target.getBarcode())));
+        } else if (kind < 7) {
+            return List.of(get(base + "/books?title=" + encode(target.getTitle())));
+        } else if (kind < 8) {
+            return List.of(get(base + "/books?after=" + target.getId() + "&limit=50"));
+        }
+        return List.of(post(base + "/checkout", title), post(base + "/checkin", title));
+    }
+
+    private static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).GET().build();
+    }
+
+    private static HttpRequest post(String uri, String json) {
+        return HttpRequest.newBuilder(URI.create(uri)).POST(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
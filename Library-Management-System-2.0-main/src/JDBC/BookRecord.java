@@ -0,0 +1,47 @@
+package JDBC;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: BookRecord
+ * Description: One row of the books table as read by BookRepository.
+ */
+public class BookRecord {
+    // Status values used in the books table
+    public static final String CHECKED_IN = "checked in";
+    public static final String CHECKED_OUT = "checked out";
+
+    private final String title;
+    private final String author;
+    private final int barcode;
+    private final String status;
+    private final String dueDate;
+
+    public BookRecord(String title, String author, int barcode, String status, String dueDate) {
+        this.title = title;
+        this.author = author;
+        this.barcode = barcode;
+        this.status = status;
+        this.dueDate = dueDate;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public int getBarcode() {
+        return barcode;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getDueDate() {
+        return dueDate;
+    }
+}
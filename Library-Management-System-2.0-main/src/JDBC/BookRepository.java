@@ -0,0 +1,322 @@
+package JDBC;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import metrics.JdbcStatementEvent;
+import metrics.Metrics;
+import metrics.Timer;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: BookRepository
+ * Description: Row-level access to the books table, for tools that work on rows rather
+ * than through a Library (CirculationBenchmark). It also holds the SQL that
+ * SqliteCatalogStore runs, so both write rows the same way. Every call
+ * borrows a pooled connection, uses its cached prepared statements and closes
+ * its ResultSets before returning the connection. Each call is timed (connection borrow
+ * included) under "jdbc.<statement>" in Metrics.
+ */
+public class BookRepository {
+    private static final String IF_CHECKED_IN = " AND status = '" + BookRecord.CHECKED_IN + "'";
+    private static final String IF_CHECKED_OUT = " AND status = '" + BookRecord.CHECKED_OUT + "'";
+    // Parameters: due date, checkout date, then the row's key
+    private static final String SET_CHECKED_OUT = "UPDATE books SET status = '" + BookRecord.CHECKED_OUT + "',"
+            + " due_date = ?, checkout_date = ?";
+    private static final String SET_CHECKED_IN = "UPDATE books SET status = '" + BookRecord.CHECKED_IN + "',"
+            + " due_date = NULL, checkout_date = NULL";
+
+    // Checkout and checkin are single conditional UPDATEs: the status test in the WHERE clause
+    // makes the statement a no-op if another desk got there first, and the affected-row
+    // count tells the caller whether it won. There is no window between a SELECT and an UPDATE.
+    // Barcodes are not unique (see SchemaBootstrap), so each barcode statement picks one row,
+    // the way the title statements pick one copy.
+    static final String DELETE_BY_BARCODE = "DELETE FROM books" + oneRowWhere("barcode = ?");
+    static final String CHECK_OUT_BY_TITLE = SET_CHECKED_OUT + oneRowWhere("title = ?" + IF_CHECKED_IN)
+            + IF_CHECKED_IN;
+    static final String CHECK_IN_BY_TITLE = SET_CHECKED_IN + oneRowWhere("title = ?" + IF_CHECKED_OUT)
+            + IF_CHECKED_OUT;
+    static final String CHECK_OUT_BY_BARCODE = SET_CHECKED_OUT + oneRowWhere("barcode = ?" + IF_CHECKED_IN) + IF_CHECKED_IN;
+    static final String CHECK_IN_BY_BARCODE = SET_CHECKED_IN + oneRowWhere("barcode = ?" + IF_CHECKED_OUT) + IF_CHECKED_OUT;
+
+    // SqliteCatalogStore keeps the rowid of each book it loads or inserts and writes by rowid
+    static final String FIND_ALL_ROWS = "SELECT rowid, book_id, title, author, barcode, status, due_date,"
+            + " checkout_date FROM books ORDER BY rowid";
+    static final String INSERT = "INSERT INTO books (book_id, title, author, barcode, status, due_date,"
+            + " checkout_date) VALUES (?, ?, ?, ?, ?, ?, ?) RETURNING rowid";
+    static final String DELETE_BY_ROWID = "DELETE FROM books WHERE rowid = ?";
+    static final String DELETE_ALL = "DELETE FROM books";
+    static final String CHECK_OUT_BY_ROWID = SET_CHECKED_OUT + " WHERE rowid = ?" + IF_CHECKED_IN;
+    static final String CHECK_IN_BY_ROWID = SET_CHECKED_IN + " WHERE rowid = ?" + IF_CHECKED_OUT;
+    // Changes whenever another connection commits to the database (never for this connection's own commits)
+    static final String DATA_VERSION = "PRAGMA data_version";
+
+    static final String FIND_ALL = "SELECT title, author, barcode, status, due_date FROM books";
+    // Both range queries are answered from the (status, due_date) index, already in due date order
+    static final String FIND_OVERDUE = "SELECT title, author, barcode, status, due_date FROM books"
+            + " WHERE status = '" + BookRecord.CHECKED_OUT + "' AND due_date < ? ORDER BY due_date";
+    static final String FIND_DUE_BETWEEN = "SELECT title, author, barcode, status, due_date FROM books"
+            + " WHERE status = '" + BookRecord.CHECKED_OUT + "' AND due_date >= ? AND due_date <= ? ORDER BY due_date";
+
+    private static final Timer REMOVE_BY_BARCODE_TIMER = statementTimer("remove_by_barcode");
+    private static final Timer CHECK_OUT_TIMER = statementTimer("check_out");
+    private static final Timer CHECK_IN_TIMER = statementTimer("check_in");
+    private static final Timer CHECK_OUT_ALL_TIMER = statementTimer("check_out_all");
+    private static final Timer CHECK_IN_ALL_TIMER = statementTimer("check_in_all");
+    private static final Timer FIND_ALL_TIMER = statementTimer("find_all");
+    private static final Timer FIND_OVERDUE_TIMER = statementTimer("find_overdue");
+    private static final Timer FIND_DUE_WITHIN_TIMER = statementTimer("find_due_within");
+
+    private final ConnectionPool pool;
+
+    /**
+     * Constructor for the BookRepository class.
+     * @param pool The pool connections are borrowed from.
+     */
+    public BookRepository(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Method to remove a book by its barcode. If copies share the barcode, one is removed.
+     * @param barcode The barcode of the book to remove.
+     * @return true if a row was deleted.
+     * @throws SQLException If the database cannot be updated.
+     */
+    public boolean removeByBarcode(String barcode) throws SQLException {
+        long start = REMOVE_BY_BARCODE_TIMER.start();
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement statement = connection.prepare(DELETE_BY_BARCODE);
+            statement.setString(1, barcode);
+            return statement.executeUpdate() > 0;
+        } finally {
+            REMOVE_BY_BARCODE_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Method to check out a checked in copy of a title, due 4 weeks from today.
+     * @param title The title of the book to check out.
+     * @return true if a copy was checked out.
+     * @throws SQLException If the database cannot be updated.
+     */
+    public boolean checkOut(String title) throws SQLException {
+        long start = CHECK_OUT_TIMER.start();
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement update = connection.prepare(CHECK_OUT_BY_TITLE);
+            update.setDate(1, Date.valueOf(dueDateFromToday()));
+            update.setDate(2, Date.valueOf(LocalDate.now()));
+            update.setString(3, title);
+            return update.executeUpdate() > 0;
+        } finally {
+            CHECK_OUT_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Method to check in a checked out copy of a title.
+     * @param title The title of the book to check in.
+     * @return true if a copy was checked in.
+     * @throws SQLException If the database cannot be updated.
+     */
+    public boolean checkIn(String title) throws SQLException {
+        long start = CHECK_IN_TIMER.start();
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement update = connection.prepare(CHECK_IN_BY_TITLE);
+            update.setString(1, title);
+            return update.executeUpdate() > 0;
+        } finally {
+            CHECK_IN_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Method to check out many books by barcode in one transaction, e.g. a stack at the desk.
+     * Barcodes that are missing or already checked out are skipped.
+     * @param barcodes The barcodes to check out.
+     * @return The number of books checked out.
+     * @throws SQLException If the transaction fails; nothing is checked out in that case.
+     */
+    public int checkOutAll(Collection<Integer> barcodes) throws SQLException {
+        long start = CHECK_OUT_ALL_TIMER.start();
+        try {
+            Date dueDate = Date.valueOf(dueDateFromToday());
+            Date today = Date.valueOf(LocalDate.now());
+            try (PooledConnection connection = pool.borrow()) {
+                return inTransaction(connection, () -> {
+                    PreparedStatement update = connection.prepare(CHECK_OUT_BY_BARCODE);
+                    for (int barcode : barcodes) {
+                        update.setDate(1, dueDate);
+                        update.setDate(2, today);
+                        update.setInt(3, barcode);
+                        update.addBatch();
+                    }
+                    return sum(update.executeBatch());
+                });
+            }
+        } finally {
+            CHECK_OUT_ALL_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Method to check in many books by barcode in one transaction, e.g. a returns cart.
+     * Barcodes that are missing or not checked out are skipped.
+     * @param barcodes The barcodes to check in.
+     * @return The number of books checked in.
+     * @throws SQLException If the transaction fails; nothing is checked in in that case.
+     */
+    public int checkInAll(Collection<Integer> barcodes) throws SQLException {
+        long start = CHECK_IN_ALL_TIMER.start();
+        try (PooledConnection connection = pool.borrow()) {
+            return inTransaction(connection, () -> {
+                PreparedStatement update = connection.prepare(CHECK_IN_BY_BARCODE);
+                for (int barcode : barcodes) {
+                    update.setInt(1, barcode);
+                    update.addBatch();
+                }
+                return sum(update.executeBatch());
+            });
+        } finally {
+            CHECK_IN_ALL_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Method to read every book.
+     * @return All rows of the books table.
+     * @throws SQLException If the table cannot be read.
+     */
+    public List<BookRecord> findAll() throws SQLException {
+        long start = FIND_ALL_TIMER.start();
+        try {
+            List<BookRecord> books = new ArrayList<>();
+            try (PooledConnection connection = pool.borrow();
+                 ResultSet resultSet = connection.prepare(FIND_ALL).executeQuery()) {
+                while (resultSet.next()) {
+                    books.add(toRecord(resultSet));
+                }
+            }
+            return books;
+        } finally {
+            FIND_ALL_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Method to find the checked out books that are overdue, earliest due date first.
+     * @param today The current date; books due before it are overdue.
+     * @return The overdue books.
+     * @throws SQLException If the table cannot be read.
+     */
+    public List<BookRecord> findOverdue(LocalDate today) throws SQLException {
+        long start = FIND_OVERDUE_TIMER.start();
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement query = connection.prepare(FIND_OVERDUE);
+            query.setDate(1, Date.valueOf(today));
+            return readAll(query);
+        } finally {
+            FIND_OVERDUE_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Method to find the checked out books due in the next days, earliest due date first.
+     * @param today The current date; books due today are included.
+     * @param days How many days ahead to look; 0 returns only the books due today.
+     * @return The books due from today up to and including today plus days.
+     * @throws SQLException If the table cannot be read.
+     * @throws IllegalArgumentException If days is negative.
+     */
+    public List<BookRecord> findDueWithin(LocalDate today, int days) throws SQLException {
+        if (days < 0) {
+            throw new IllegalArgumentException("days must not be negative");
+        }
+        long start = FIND_DUE_WITHIN_TIMER.start();
+        try (PooledConnection connection = pool.borrow()) {
+            PreparedStatement query = connection.prepare(FIND_DUE_BETWEEN);
+            query.setDate(1, Date.valueOf(today));
+            query.setDate(2, Date.valueOf(today.plusDays(days)));
+            return readAll(query);
+        } finally {
+            FIND_DUE_WITHIN_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Work run inside a transaction.
+     */
+    private interface TransactionWork<T> {
+        T run() throws SQLException;
+    }
+
+    /**
+     * Method to run work in one transaction, rolling back if it fails.
+     */
+    private static <T> T inTransaction(PooledConnection pooled, TransactionWork<T> work) throws SQLException {
+        Connection connection = pooled.getConnection();
+        connection.setAutoCommit(false);
+        try {
+            T result = work.run();
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackFailure) {
+                // Keep the failure that caused the rollback; the broken rollback is secondary
+                e.addSuppressed(rollbackFailure);
+            }
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static List<BookRecord> readAll(PreparedStatement query) throws SQLException {
+        List<BookRecord> books = new ArrayList<>();
+        try (ResultSet resultSet = query.executeQuery()) {
+            while (resultSet.next()) {
+                books.add(toRecord(resultSet));
+            }
+        }
+        return books;
+    }
+
+    private static Timer statementTimer(String statement) {
+        return Metrics.timer("jdbc." + statement, () -> {
+            JdbcStatementEvent event = new JdbcStatementEvent();
+            event.statement = statement;
+            return event;
+        });
+    }
+
+    private static int sum(int[] updateCounts) {
+        int total = 0;
+        for (int count : updateCounts) {
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+
+    // Picks the first row matching the condition, so a statement changes at most one row
+    private static String oneRowWhere(String condition) {
+        return " WHERE rowid = (SELECT rowid FROM books WHERE " + condition + " LIMIT 1)";
+    }
+
+    private static LocalDate dueDateFromToday() {
+        return LocalDate.now().plusWeeks(4);
+    }
+
+    static BookRecord toRecord(ResultSet resultSet) throws SQLException {
+        return new BookRecord(resultSet.getString("title"), resultSet.getString("author"),
+                resultSet.getInt("barcode"), resultSet.getString("status"), resultSet.getString("due_date"));
+    }
+}
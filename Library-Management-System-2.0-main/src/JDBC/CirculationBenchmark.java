@@ -0,0 +1,132 @@
+package JDBC;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: CirculationBenchmark
+ * Description: Measures checkout/checkin throughput against a scratch SQLite database:
+ * the old SELECT-then-UPDATE round trips, the single conditional UPDATE in
+ * BookRepository, and BookRepository's batched one-transaction returns.
+ * Usage: java JDBC.CirculationBenchmark [books]   (default 200, one returns cart)
+ */
+public class CirculationBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException, SQLException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        Path file = Files.createTempFile("circulation", ".db");
+        String url = "jdbc:sqlite:" + file;
+        try (ConnectionPool pool = new ConnectionPool(url, 1, SchemaBootstrap::configure)) {
+            SchemaBootstrap.migrate(pool);
+            createBooks(url, count);
+            BookRepository repository = new BookRepository(pool);
+            List<String> titles = new ArrayList<>();
+            List<Integer> barcodes = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                titles.add("Title " + i);
+                barcodes.add(1000 + i);
+            }
+
+            System.out.printf("%,d books, best of %d rounds (checkout + checkin of every book)%n", count, ROUNDS);
+            System.out.printf("%-28s %12s %14s %14s%n", "Strategy", "statements", "stmts/sec", "books/sec");
+
+            // Old JDBC_GUI behaviour: SELECT the barcode, then UPDATE it, autocommit per statement
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                try (Connection connection = DriverManager.getConnection(url)) {
+                    SchemaBootstrap.configure(connection);
+                    for (String title : titles) {
+                        selectThenUpdate(connection, title, BookRecord.CHECKED_IN, BookRecord.CHECKED_OUT);
+                    }
+                    for (String title : titles) {
+                        selectThenUpdate(connection, title, BookRecord.CHECKED_OUT, BookRecord.CHECKED_IN);
+                    }
+                }
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            report("SELECT + UPDATE", 4L * count, 2L * count, best);
+
+            best = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                for (String title : titles) {
+                    repository.checkOut(title);
+                }
+                for (String title : titles) {
+                    repository.checkIn(title);
+                }
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            report("Conditional UPDATE", 2L * count, 2L * count, best);
+
+            best = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                int changed = repository.checkOutAll(barcodes) + repository.checkInAll(barcodes);
+                best = Math.min(best, System.nanoTime() - start);
+                if (changed != 2 * count) {
+                    throw new IllegalStateException("Batch changed " + changed + " rows, expected " + 2 * count);
+                }
+            }
+            // The whole batch commits once per direction, so 2 commits for 2 * count updates
+            report("Batched transaction", 2L * count, 2L * count, best);
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(Path.of(file + "-wal"));
+            Files.deleteIfExists(Path.of(file + "-shm"));
+        }
+    }
+
+    private static void createBooks(String url, int count) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url)) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO books (title, author, barcode, status) VALUES (?, ?, ?, ?)")) {
+                for (int i = 0; i < count; i++) {
+                    insert.setString(1, "Title " + i);
+                    insert.setString(2, "Author " + i);
+                    insert.setInt(3, 1000 + i);
+                    insert.setString(4, BookRecord.CHECKED_IN);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+
+    private static void selectThenUpdate(Connection connection, String title, String from, String to) throws SQLException {
+        int barcode;
+        try (PreparedStatement select = connection.prepareStatement("SELECT barcode FROM books WHERE title = ? AND status = ?")) {
+            select.setString(1, title);
+            select.setString(2, from);
+            try (ResultSet resultSet = select.executeQuery()) {
+                if (!resultSet.next()) {
+                    return;
+                }
+                barcode = resultSet.getInt("barcode");
+            }
+        }
+        try (PreparedStatement update = connection.prepareStatement("UPDATE books SET status = ? WHERE barcode = ?")) {
+            update.setString(1, to);
+            update.setInt(2, barcode);
+            update.executeUpdate();
+        }
+    }
+
+    private static void report(String name, long statements, long books, long nanos) {
+        double seconds = nanos / 1e9;
+        System.out.printf("%-28s %,12d %,14.0f %,14.0f%n", name, statements, statements / seconds, books / seconds);
+    }
+}
@@ -0,0 +1,134 @@
+package JDBC;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: ConnectionPool
+ * Description: Small bounded pool of JDBC connections. Connections are opened lazily
+ * up to the limit and handed out as PooledConnections, which go back to the pool when
+ * closed. Each pooled connection keeps its own prepared statement cache, and an optional
+ * initializer runs on every new connection (for per-connection settings such as pragmas).
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final long BORROW_TIMEOUT_SECONDS = 30;
+
+    private final String url;
+    private final int maxConnections;
+    private final ConnectionInitializer initializer;
+    private final BlockingQueue<PooledConnection> idle;
+    private final List<PooledConnection> all = new ArrayList<>();
+    private boolean closed;
+
+    /**
+     * Constructor for the ConnectionPool class.
+     * @param url The JDBC URL, for example "jdbc:sqlite:LMSlibrary.db".
+     * @param maxConnections Upper bound on open connections.
+     */
+    public ConnectionPool(String url, int maxConnections) {
+        this(url, maxConnections, null);
+    }
+
+    /**
+     * Constructor for the ConnectionPool class with a setup step for new connections.
+     * @param url The JDBC URL, for example "jdbc:sqlite:LMSlibrary.db".
+     * @param maxConnections Upper bound on open connections.
+     * @param initializer Run once on each newly opened connection, or null.
+     */
+    public ConnectionPool(String url, int maxConnections, ConnectionInitializer initializer) {
+        this.url = url;
+        this.maxConnections = maxConnections;
+        this.initializer = initializer;
+        this.idle = new ArrayBlockingQueue<>(maxConnections);
+    }
+
+    /**
+     * Setup run on each connection when the pool opens it.
+     */
+    public interface ConnectionInitializer {
+        void initialize(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Method to borrow a connection; close it to give it back.
+     * Waits for a free connection when all of them are in use.
+     * @return A connection owned by the caller until it is closed.
+     * @throws SQLException If a connection cannot be opened or none frees up in time.
+     */
+    public PooledConnection borrow() throws SQLException {
+        PooledConnection connection = idle.poll();
+        if (connection != null) {
+            return connection;
+        }
+        connection = openIfBelowLimit();
+        if (connection != null) {
+            return connection;
+        }
+        try {
+            connection = idle.poll(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        if (connection == null) {
+            throw new SQLException("No database connection available after " + BORROW_TIMEOUT_SECONDS + " seconds");
+        }
+        return connection;
+    }
+
+    /**
+     * Method to return a connection to the pool (called by PooledConnection.close).
+     */
+    void release(PooledConnection connection) {
+        synchronized (this) {
+            if (closed || connection.isBroken()) {
+                all.remove(connection);
+                connection.closePhysical();
+                return;
+            }
+        }
+        idle.offer(connection);
+    }
+
+    /**
+     * Method to close every connection and its cached statements.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (PooledConnection connection : all) {
+            connection.closePhysical();
+        }
+        all.clear();
+        idle.clear();
+    }
+
+    private synchronized PooledConnection openIfBelowLimit() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        if (all.size() >= maxConnections) {
+            return null;
+        }
+        Connection physical = DriverManager.getConnection(url);
+        if (initializer != null) {
+            try {
+                initializer.initialize(physical);
+            } catch (SQLException e) {
+                physical.close();
+                throw e;
+            }
+        }
+        PooledConnection connection = new PooledConnection(this, physical);
+        all.add(connection);
+        return connection;
+    }
+}
@@ -1,265 +1,291 @@
-package JDBC;
-
-import javax.swing.*;
-import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.sql.*;
-import java.time.LocalDate;
-import java.sql.Date;
-
-/*
- * Author: Candy Torres
- * Course: Software Development I - CEN 3024C
- * Due Date: April 7, 2024.
- * Class Name: JDBC_GUI
- * Description: Represents the main page for Library Management System GUI integrating SQLite.
- * This page provides access to various functions such as adding, removing,
- * checking books in/out, upload books from a txt file, and database display.
- */
-public class JDBC_GUI extends JFrame {
-    // Database URL
-    private static final String DB_URL = "jdbc:sqlite:LMSlibrary.db";
-    private Connection connection;
-    private Statement statement;
-    private JLabel outputLabel;
-
-    public JDBC_GUI() {
-
-        // Frame setup
-        setTitle("Library Management System");
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        setSize(600, 400);
-        setLocationRelativeTo(null);
-
-        // Set font and alignment for title
-        Font titleFont = new Font("Arial", Font.BOLD, 24); // Choose your desired font and size
-        getRootPane().setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
-        JLabel titleLabel = new JLabel("Library Management System", JLabel.CENTER);
-        titleLabel.setFont(titleFont);
-
-        // Initialize components
-        outputLabel = new JLabel("Please make a selection");
-        outputLabel.setHorizontalAlignment(SwingConstants.CENTER); // Center align the text
-        outputLabel.setFont(outputLabel.getFont().deriveFont(Font.BOLD, 20f)); // Increase font size and make it bold
-        JPanel buttonPanel = new JPanel(new GridLayout(0, 1, 0, 10));
-        buttonPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
-
-
-
-        // Add components to frame
-        getContentPane().add(titleLabel, BorderLayout.NORTH); // Add titleLabel instead of outputLabel
-        getContentPane().add(buttonPanel, BorderLayout.CENTER);
-
-
-        // Connect to the database
-        try {
-            connection = DriverManager.getConnection(DB_URL);
-            statement = connection.createStatement();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        // Set up main buttons
-        switchToMainButtons(buttonPanel);
-    }
-
-    // Switch to main buttons
-    private void switchToMainButtons(JPanel buttonPanel) {
-        buttonPanel.removeAll();
-        JButton displayButton = new JButton("Display Database");
-        JButton removeButton = new JButton("Remove Book");
-        JButton checkOutButton = new JButton("Check Out Book");
-        JButton checkInButton = new JButton("Check In Book");
-        JButton exitButton = new JButton("Exit");
-
-        // Set font for buttons
-        Font buttonFont = new Font(Font.SANS_SERIF, Font.PLAIN, 14);
-        displayButton.setFont(buttonFont);
-        removeButton.setFont(buttonFont);
-        checkOutButton.setFont(buttonFont);
-        checkInButton.setFont(buttonFont);
-        exitButton.setFont(buttonFont);
-
-        // Add action listeners for buttons
-        displayButton.addActionListener(e -> displayDatabase());
-        removeButton.addActionListener(e -> removeBook());
-        checkOutButton.addActionListener(e -> checkOutBook());
-        checkInButton.addActionListener(e -> checkInBook());
-        exitButton.addActionListener(e -> exitApplication());
-
-        // Add buttons to panel
-        buttonPanel.add(displayButton);
-        buttonPanel.add(removeButton);
-        buttonPanel.add(checkOutButton);
-        buttonPanel.add(checkInButton);
-        buttonPanel.add(exitButton);
-
-        // Refresh the panel
-        revalidate();
-        repaint();
-    }
-
-    /**
-     * Remove books from SQL database
-     */
-    private void removeBook() {
-        String barcode = JOptionPane.showInputDialog(null, "Enter barcode of the book to remove:");
-        if (barcode != null) {
-            try {
-                String query = "DELETE FROM books WHERE barcode = ?";
-                PreparedStatement statement = connection.prepareStatement(query);
-                statement.setString(1, barcode);
-                int rowsDeleted = statement.executeUpdate();
-                if (rowsDeleted > 0) {
-                    JOptionPane.showMessageDialog(null, "Book removed successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                } else {
-                    JOptionPane.showMessageDialog(null, "Book with barcode " + barcode + " not found.", "Error", JOptionPane.ERROR_MESSAGE);
-                }
-            } catch (SQLException ex) {
-                ex.printStackTrace();
-                JOptionPane.showMessageDialog(null, "An error occurred while removing the book.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
-        }
-    }
-
-    /**
-     * Check out a book
-     * User is able to check out a book from the SQL database by title.
-     * Title is supplied by user.
-     */
-    private void checkOutBook() {
-        String title = JOptionPane.showInputDialog(null, "Enter the title of the book to check out:");
-        if (title != null) {
-            try {
-                // Check if the book is available (not already checked out)
-                String query = "SELECT * FROM books WHERE title = ? AND status = 'checked in'";
-                PreparedStatement checkStatement = connection.prepareStatement(query);
-                checkStatement.setString(1, title);
-                ResultSet resultSet = checkStatement.executeQuery();
-
-                if (resultSet.next()) {
-                    // Book is available, update its status and due date
-                    int id = resultSet.getInt("barcode");
-                    String updateQuery = "UPDATE books SET status = 'checked out', due_date = ? WHERE barcode = ?";
-                    PreparedStatement updateStatement = connection.prepareStatement(updateQuery);
-
-                    // Calculate due date (4 weeks from the current date)
-                    LocalDate currentDate = LocalDate.now();
-                    LocalDate dueDate = currentDate.plusWeeks(4);
-                    Date sqlDueDate = Date.valueOf(dueDate);
-
-                    // Set parameters for the update statement
-                    updateStatement.setDate(1, sqlDueDate);
-                    updateStatement.setInt(2, id);
-
-                    // Execute the update statement
-                    int rowsUpdated = updateStatement.executeUpdate();
-                    if (rowsUpdated > 0) {
-                        JOptionPane.showMessageDialog(null, "Book '" + title + "' checked out successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                    } else {
-                        JOptionPane.showMessageDialog(null, "Failed to check out the book.", "Error", JOptionPane.ERROR_MESSAGE);
-                    }
-                } else {
-                    JOptionPane.showMessageDialog(null, "Book '" + title + "' is not available for checkout.", "Error", JOptionPane.ERROR_MESSAGE);
-                }
-            } catch (SQLException ex) {
-                ex.printStackTrace();
-                JOptionPane.showMessageDialog(null, "An error occurred while checking out the book.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
-        }
-    }
-
-    /**
-     * Check in a book
-     * User is able to check in a book from the SQL database by title.
-     * Title is supplied by user.
-     */
-    private void checkInBook() {
-        String title = JOptionPane.showInputDialog(null, "Enter the title of the book to check in:");
-        if (title != null) {
-            try {
-                // Check if the book is checked out
-                String query = "SELECT * FROM books WHERE title = ? AND status = 'checked out'";
-                PreparedStatement checkStatement = connection.prepareStatement(query);
-                checkStatement.setString(1, title);
-                ResultSet resultSet = checkStatement.executeQuery();
-
-                if (resultSet.next()) {
-                    // Book is checked out, update its status and due date to null
-                    int id = resultSet.getInt("barcode");
-                    String updateQuery = "UPDATE books SET status = 'checked in', due_date = NULL WHERE barcode = ?";
-                    PreparedStatement updateStatement = connection.prepareStatement(updateQuery);
-
-                    // Set parameter for the update statement
-                    updateStatement.setInt(1, id);
-
-                    // Execute the update statement
-                    int rowsUpdated = updateStatement.executeUpdate();
-                    if (rowsUpdated > 0) {
-                        JOptionPane.showMessageDialog(null, "Book '" + title + "' checked in successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                    } else {
-                        JOptionPane.showMessageDialog(null, "Failed to check in the book.", "Error", JOptionPane.ERROR_MESSAGE);
-                    }
-                } else {
-                    JOptionPane.showMessageDialog(null, "Book '" + title + "' is not currently checked out.", "Error", JOptionPane.ERROR_MESSAGE);
-                }
-            } catch (SQLException ex) {
-                ex.printStackTrace();
-                JOptionPane.showMessageDialog(null, "An error occurred while checking in the book.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
-        }
-    }
-
-    /**
-     * Display database contents from SQL database.
-     */
-
-    private void displayDatabase() {
-
-        JFrame bookList = new JFrame();
-        bookList.setSize(680, 450);
-        // Initialize components
-        JLabel bookItems = new JLabel();
-        bookItems.setHorizontalAlignment(SwingConstants.CENTER); // Center align the text
-        bookItems.setFont(bookItems.getFont().deriveFont(Font.BOLD, 20f)); // Increase font size and make it bold
-
-
-
-        try {
-            ResultSet resultSet = statement.executeQuery("SELECT * FROM books");
-            StringBuilder stringBuilder = new StringBuilder();
-            while (resultSet.next()) {
-                String title = resultSet.getString("title");
-                String author = resultSet.getString("author");
-                Integer barcode = resultSet.getInt("barcode");
-                String status = resultSet.getString("status");
-                String dueDate = resultSet.getString("due_date");
-
-                stringBuilder.append(", Title: ").append(title).append(", Author: ")
-                        .append(author).append(", Barcode: ").append(barcode).append(", Status: ").append(status)
-                        .append(", Due Date: ").append(dueDate).append("<br>");
-            }
-            bookItems.setText("<html><body><div align='center'>Please make a selection</div><br>" + stringBuilder.toString() + "</body></html>");
-            bookList.getContentPane().add(bookItems);
-            bookList.setVisible(true);
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
-
-    /**
-     * Exit application
-     */
-    private void exitApplication() {
-        int choice = JOptionPane.showConfirmDialog(null, "Are you sure you want to exit?", "Confirm Exit", JOptionPane.YES_NO_OPTION);
-        if (choice == JOptionPane.YES_OPTION) {
-            dispose();
-        }
-    }
-
-    // Main method
-    public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> new JDBC_GUI().setVisible(true));
-    }
-}
+package JDBC;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+import catalog.Book;
+import catalog.Library;
+import catalog.LibraryOperations;
+import catalog.LibraryTableModel;
+import metrics.Metrics;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Due Date: April 7, 2024.
+ * Class Name: JDBC_GUI
+ * Description: Represents the main page for Library Management System GUI integrating SQLite.
+ * This page provides access to various functions such as adding, removing,
+ * checking books in/out, upload books from a txt file, and database display.
+ * The books are a Library on a SqliteCatalogStore, the same CatalogStore SPI MainFrame uses,
+ * run through LibraryOperations so the window never waits on the database. Changes other
+ * programs make to the database are picked up before each operation.
+ */
+public class JDBC_GUI extends JFrame {
+    private final LibraryOperations operations;
+    private JLabel outputLabel;
+    private int busyOperations;
+
+    /**
+     * Constructor for the JDBC_GUI class.
+     * @param library The library to show, on an SQLite store; it is used only through LibraryOperations.
+     */
+    public JDBC_GUI(Library library) {
+        this.operations = new LibraryOperations(library);
+
+        // Frame setup
+        setTitle("Library Management System");
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setSize(600, 400);
+        setLocationRelativeTo(null);
+
+        // Set font and alignment for title
+        Font titleFont = new Font("Arial", Font.BOLD, 24); // Choose your desired font and size
+        getRootPane().setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+        JLabel titleLabel = new JLabel("Library Management System", JLabel.CENTER);
+        titleLabel.setFont(titleFont);
+
+        // Initialize components
+        outputLabel = new JLabel("Please make a selection");
+        outputLabel.setHorizontalAlignment(SwingConstants.CENTER); // Center align the text
+        outputLabel.setFont(outputLabel.getFont().deriveFont(Font.BOLD, 20f)); // Increase font size and make it bold
+        JPanel buttonPanel = new JPanel(new GridLayout(0, 1, 0, 10));
+        buttonPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+
+
+
+        // Add components to frame
+        getContentPane().add(titleLabel, BorderLayout.NORTH); // Add titleLabel instead of outputLabel
+        getContentPane().add(buttonPanel, BorderLayout.CENTER);
+
+
+        // Set up main buttons
+        switchToMainButtons(buttonPanel);
+    }
+
+    // Switch to main buttons
+    private void switchToMainButtons(JPanel buttonPanel) {
+        buttonPanel.removeAll();
+        JButton displayButton = new JButton("Display Database");
+        JButton removeButton = new JButton("Remove Book");
+        JButton checkOutButton = new JButton("Check Out Book");
+        JButton checkInButton = new JButton("Check In Book");
+        JButton overdueButton = new JButton("Overdue Books");
+        JButton dueSoonButton = new JButton("Books Due Soon");
+        JButton exitButton = new JButton("Exit");
+
+        // Set font for buttons
+        Font buttonFont = new Font(Font.SANS_SERIF, Font.PLAIN, 14);
+        displayButton.setFont(buttonFont);
+        removeButton.setFont(buttonFont);
+        checkOutButton.setFont(buttonFont);
+        checkInButton.setFont(buttonFont);
+        overdueButton.setFont(buttonFont);
+        dueSoonButton.setFont(buttonFont);
+        exitButton.setFont(buttonFont);
+
+        // Add action listeners for buttons
+        displayButton.addActionListener(e -> displayDatabase());
+        removeButton.addActionListener(e -> removeBook());
+        checkOutButton.addActionListener(e -> checkOutBook());
+        checkInButton.addActionListener(e -> checkInBook());
+        overdueButton.addActionListener(e -> displayOverdueBooks());
+        dueSoonButton.addActionListener(e -> displayBooksDueSoon());
+        exitButton.addActionListener(e -> exitApplication());
+
+        // Add buttons to panel
+        buttonPanel.add(displayButton);
+        buttonPanel.add(removeButton);
+        buttonPanel.add(checkOutButton);
+        buttonPanel.add(checkInButton);
+        buttonPanel.add(overdueButton);
+        buttonPanel.add(dueSoonButton);
+        buttonPanel.add(exitButton);
+
+        // Refresh the panel
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * Remove books from SQL database
+     */
+    private void removeBook() {
+        String barcode = JOptionPane.showInputDialog(null, "Enter barcode of the book to remove:");
+        if (barcode != null) {
+            runInBackground(operations.removeBookByBarcode(barcode), (removed, error) -> {
+                if (error != null) {
+                    error.printStackTrace();
+                    JOptionPane.showMessageDialog(null, "An error occurred while removing the book.", "Error", JOptionPane.ERROR_MESSAGE);
+                } else if (removed) {
+                    JOptionPane.showMessageDialog(null, "Book removed successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(null, "Book with barcode " + barcode + " not found.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
+        }
+    }
+
+    /**
+     * Check out a book
+     * User is able to check out a book from the SQL database by title.
+     * Title is supplied by user.
+     */
+    private void checkOutBook() {
+        String title = JOptionPane.showInputDialog(null, "Enter the title of the book to check out:");
+        if (title != null) {
+            // Due date is 4 weeks from the current date
+            runInBackground(operations.checkOutBook(title), (checkedOut, error) -> {
+                if (error != null) {
+                    error.printStackTrace();
+                    JOptionPane.showMessageDialog(null, "An error occurred while checking out the book.", "Error", JOptionPane.ERROR_MESSAGE);
+                } else if (checkedOut != null) {
+                    JOptionPane.showMessageDialog(null, "Book '" + title + "' checked out successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(null, "Book '" + title + "' is not available for checkout.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
+        }
+    }
+
+    /**
+     * Check in a book
+     * User is able to check in a book from the SQL database by title.
+     * Title is supplied by user.
+     */
+    private void checkInBook() {
+        String title = JOptionPane.showInputDialog(null, "Enter the title of the book to check in:");
+        if (title != null) {
+            runInBackground(operations.checkInBook(title), (checkedIn, error) -> {
+                if (error != null) {
+                    error.printStackTrace();
+                    JOptionPane.showMessageDialog(null, "An error occurred while checking in the book.", "Error", JOptionPane.ERROR_MESSAGE);
+                } else if (checkedIn) {
+                    JOptionPane.showMessageDialog(null, "Book '" + title + "' checked in successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(null, "Book '" + title + "' is not currently checked out.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
+        }
+    }
+
+    /**
+     * Display database contents from SQL database.
+     * The books are copied in book ID order in the background; the table only formats
+     * the rows it shows, so large catalogs open quickly.
+     */
+    private void displayDatabase() {
+        runInBackground(operations.snapshot(), (books, error) -> {
+            if (error != null) {
+                error.printStackTrace();
+                JOptionPane.showMessageDialog(null, "An error occurred while reading the database.", "Error", JOptionPane.ERROR_MESSAGE);
+            } else {
+                displayBooks("Library Database", books);
+            }
+        });
+    }
+
+    /**
+     * Display the checked out books that are past their due date, earliest first.
+     */
+    private void displayOverdueBooks() {
+        LocalDate today = LocalDate.now();
+        runInBackground(operations.findOverdueBooks(today), (overdue, error) -> {
+            if (error != null) {
+                error.printStackTrace();
+                JOptionPane.showMessageDialog(null, "An error occurred while reading overdue books.", "Error", JOptionPane.ERROR_MESSAGE);
+            } else {
+                displayBooks("Overdue Books (" + overdue.size() + ")", overdue);
+            }
+        });
+    }
+
+    /**
+     * Display the checked out books due in the next days, earliest first.
+     * The number of days is supplied by user.
+     */
+    private void displayBooksDueSoon() {
+        String input = JOptionPane.showInputDialog(null, "Show books due within how many days?", "7");
+        if (input == null) {
+            return;
+        }
+        int days;
+        try {
+            days = Integer.parseInt(input.trim());
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(null, "Please enter a number of days.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (days < 0) {
+            JOptionPane.showMessageDialog(null, "Please enter 0 or more days.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        runInBackground(operations.findBooksDueWithin(today, days), (dueSoon, error) -> {
+            if (error != null) {
+                error.printStackTrace();
+                JOptionPane.showMessageDialog(null, "An error occurred while reading due dates.", "Error", JOptionPane.ERROR_MESSAGE);
+            } else {
+                displayBooks("Books Due Within " + days + " Days (" + dueSoon.size() + ")", dueSoon);
+            }
+        });
+    }
+
+    // Shows a list of books in a read-only table window
+    private void displayBooks(String title, List<Book> books) {
+        JTable table = new JTable(new LibraryTableModel(books));
+        table.setFillsViewportHeight(true);
+
+        JFrame bookList = new JFrame(title);
+        bookList.setSize(680, 450);
+        bookList.getContentPane().add(new JScrollPane(table));
+        bookList.setLocationRelativeTo(this);
+        bookList.setVisible(true);
+    }
+
+    /**
+     * Method to show a busy cursor while a background operation runs and hand its result
+     * (or its failure, unwrapped) to the callback on the event dispatch thread.
+     */
+    private <T> void runInBackground(CompletableFuture<T> operation, BiConsumer<T, Throwable> whenDone) {
+        if (busyOperations++ == 0) {
+            setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        }
+        operation.whenCompleteAsync((result, error) -> {
+            if (--busyOperations == 0) {
+                setCursor(Cursor.getDefaultCursor());
+            }
+            whenDone.accept(result, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+        }, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Exit application
+     */
+    private void exitApplication() {
+        int choice = JOptionPane.showConfirmDialog(null, "Are you sure you want to exit?", "Confirm Exit", JOptionPane.YES_NO_OPTION);
+        if (choice == JOptionPane.YES_OPTION) {
+            // Let queued changes finish and close the database connection
+            runInBackground(operations.shutdown(), (ignored, error) -> dispose());
+        }
+    }
+
+    // Main method
+    public static void main(String[] args) {
+        Metrics.startFileDumpIfConfigured();
+        // Creates or upgrades the books table and its indexes, then loads the books
+        Library library;
+        try {
+            library = new Library(new SqliteCatalogStore(SqliteCatalogStore.DEFAULT_URL));
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(null, "Could not prepare the database: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        SwingUtilities.invokeLater(() -> new JDBC_GUI(library).setVisible(true));
+    }
+}
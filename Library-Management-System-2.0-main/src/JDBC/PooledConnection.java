@@ -0,0 +1,114 @@
+package JDBC;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: PooledConnection
+ * Description: A connection borrowed from a ConnectionPool. Prepared statements are
+ * cached per connection, so each SQL string is parsed once per connection instead of
+ * on every call. Closing a PooledConnection returns it to the pool; the cached
+ * statements are closed when the pool closes the physical connection.
+ */
+public class PooledConnection implements AutoCloseable {
+    private static final int STATEMENT_CACHE_SIZE = 32;
+
+    private final ConnectionPool pool;
+    private final Connection connection;
+    private boolean broken;
+
+    // Least recently used statements are closed when the cache is full
+    private final Map<String, PreparedStatement> statements =
+            new LinkedHashMap<>(STATEMENT_CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > STATEMENT_CACHE_SIZE) {
+                        closeQuietly(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+
+    PooledConnection(ConnectionPool pool, Connection connection) {
+        this.pool = pool;
+        this.connection = connection;
+    }
+
+    /**
+     * Method to get a cached prepared statement for the SQL, preparing it on first use.
+     * The statement stays owned by this connection: do not close it, but do close its ResultSets.
+     * @param sql The SQL text.
+     * @return A prepared statement with its parameters cleared.
+     * @throws SQLException If the statement cannot be prepared.
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null || statement.isClosed()) {
+            try {
+                statement = connection.prepareStatement(sql);
+            } catch (SQLException e) {
+                markBrokenIfClosed();
+                throw e;
+            }
+            statements.put(sql, statement);
+        } else {
+            statement.clearParameters();
+        }
+        return statement;
+    }
+
+    /**
+     * Getter method for the underlying connection, for transaction control.
+     * @return The JDBC connection.
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Method to give the connection back to the pool.
+     */
+    @Override
+    public void close() {
+        markBrokenIfClosed();
+        pool.release(this);
+    }
+
+    boolean isBroken() {
+        return broken;
+    }
+
+    void closePhysical() {
+        for (PreparedStatement statement : statements.values()) {
+            closeQuietly(statement);
+        }
+        statements.clear();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void markBrokenIfClosed() {
+        try {
+            broken = broken || connection.isClosed();
+        } catch (SQLException e) {
+            broken = true;
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package JDBC;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: SchemaBootstrap
+ * Description: Versioned schema setup for LMSlibrary.db, run once at startup. The schema
+ * version is kept in SQLite's PRAGMA user_version; each migration runs in its own
+ * transaction and bumps the version, so an existing database only gets the steps it is
+ * missing. configure() sets the per-connection pragmas and is used by the ConnectionPool.
+ */
+public class SchemaBootstrap {
+    private static final int BUSY_TIMEOUT_MILLIS = 5000;
+
+    // MIGRATIONS[i] upgrades the schema from version i to version i + 1. Only ever append.
+    private static final String[][] MIGRATIONS = {
+            // 1: the books table JDBC_GUI has always used
+            {
+                    "CREATE TABLE IF NOT EXISTS books ("
+                            + "title TEXT NOT NULL, "
+                            + "author TEXT, "
+                            + "barcode INTEGER NOT NULL, "
+                            + "status TEXT NOT NULL DEFAULT '" + BookRecord.CHECKED_IN + "', "
+                            + "due_date DATE)"
+            },
+            // 2: indexes for barcode lookups, title lookups and the overdue scan. The title index
+            // carries status too, so "a checked in copy of this title" is one index probe; with
+            // title alone the planner may prefer the (status, due_date) index for that query.
+            // The barcode index is not unique: existing catalogs (and book.txt) repeat barcodes,
+            // and a unique index would make this step fail on them.
+            {
+                    "CREATE INDEX IF NOT EXISTS idx_books_barcode ON books (barcode)",
+                    "CREATE INDEX IF NOT EXISTS idx_books_title ON books (title, status)",
+                    "CREATE INDEX IF NOT EXISTS idx_books_status_due_date ON books (status, due_date)"
+            },
+            // 3: the book ID and checkout date the books file keeps, so SqliteCatalogStore can
+            // hold a Library's catalog. Both stay NULL for rows other tools insert.
+            {
+                    "ALTER TABLE books ADD COLUMN book_id INTEGER",
+                    "ALTER TABLE books ADD COLUMN checkout_date DATE"
+            },
+            // 4: databases that ran step 2 when it still made idx_books_barcode unique get the
+            // plain index, so copies sharing a barcode can be stored
+            {
+                    "DROP INDEX IF EXISTS idx_books_barcode",
+                    "CREATE INDEX idx_books_barcode ON books (barcode)"
+            }
+    };
+
+    /**
+     * Getter method for the schema version this code expects.
+     * @return The newest schema version.
+     */
+    public static int latestVersion() {
+        return MIGRATIONS.length;
+    }
+
+    /**
+     * Method to bring the database up to the latest schema version using a pooled connection.
+     * @param pool The pool to borrow a connection from.
+     * @return The schema version before migrating.
+     * @throws SQLException If a migration fails; that migration is rolled back.
+     */
+    public static int migrate(ConnectionPool pool) throws SQLException {
+        try (PooledConnection connection = pool.borrow()) {
+            return migrate(connection.getConnection());
+        }
+    }
+
+    /**
+     * Method to bring the database up to the latest schema version.
+     * @param connection An open connection in autocommit mode.
+     * @return The schema version before migrating.
+     * @throws SQLException If a migration fails; that migration is rolled back.
+     */
+    public static int migrate(Connection connection) throws SQLException {
+        int startVersion = userVersion(connection);
+        if (startVersion > MIGRATIONS.length) {
+            throw new SQLException("Database schema version " + startVersion
+                    + " is newer than this program supports (" + MIGRATIONS.length + ")");
+        }
+        for (int version = startVersion; version < MIGRATIONS.length; version++) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : MIGRATIONS[version]) {
+                    statement.executeUpdate(sql);
+                }
+                // user_version takes no bind parameters; the value is our own int
+                statement.executeUpdate("PRAGMA user_version = " + (version + 1));
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw new SQLException("Schema migration to version " + (version + 1) + " failed: " + e.getMessage(), e);
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+        return startVersion;
+    }
+
+    /**
+     * Method to set the pragmas every connection should use: WAL so readers do not block the
+     * writer, NORMAL sync (safe with WAL, one fsync per checkpoint instead of per commit) and
+     * a busy timeout so concurrent writers wait instead of failing with SQLITE_BUSY.
+     * @param connection A newly opened connection.
+     * @throws SQLException If a pragma cannot be set.
+     */
+    public static void configure(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA journal_mode = WAL");
+            statement.execute("PRAGMA synchronous = NORMAL");
+            statement.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MILLIS);
+        }
+    }
+
+    /**
+     * Method to read the schema version stored in the database.
+     * @param connection An open connection.
+     * @return The value of PRAGMA user_version (0 for a new database).
+     * @throws SQLException If the pragma cannot be read.
+     */
+    public static int userVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA user_version")) {
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package JDBC;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: SchemaBootstrapTest
+ * Description: Checks that SchemaBootstrap creates the books schema, is safe to rerun,
+ * and that BookRepository's lookups are answered from the indexes, not table scans.
+ */
+class SchemaBootstrapTest {
+    private Path databaseFile;
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws IOException, SQLException {
+        databaseFile = Files.createTempFile("schema-bootstrap", ".db");
+        connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile);
+        SchemaBootstrap.configure(connection);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException, SQLException {
+        connection.close();
+        Files.deleteIfExists(databaseFile);
+        Files.deleteIfExists(Path.of(databaseFile + "-wal"));
+        Files.deleteIfExists(Path.of(databaseFile + "-shm"));
+    }
+
+    @Test
+    void testMigrateCreatesSchemaOnceAndUsesWal() throws SQLException {
+        assertEquals(0, SchemaBootstrap.migrate(connection));
+        assertEquals(SchemaBootstrap.latestVersion(), SchemaBootstrap.userVersion(connection));
+
+        // A second run finds the database current and changes nothing
+        assertEquals(SchemaBootstrap.latestVersion(), SchemaBootstrap.migrate(connection));
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA journal_mode")) {
+            assertTrue(resultSet.next());
+            assertEquals("wal", resultSet.getString(1));
+        }
+    }
+
+    @Test
+    void testRepeatedBarcodesMigrate() throws SQLException {
+        // A version 1 database holding two copies with one barcode, as book.txt has
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE books (title TEXT NOT NULL, author TEXT, barcode INTEGER NOT NULL, "
+                    + "status TEXT NOT NULL DEFAULT '" + BookRecord.CHECKED_IN + "', due_date DATE)");
+            statement.executeUpdate("PRAGMA user_version = 1");
+            statement.executeUpdate("INSERT INTO books (title, author, barcode, status) VALUES"
+                    + " ('Dune', 'Frank Herbert', 1001, '" + BookRecord.CHECKED_OUT + "'),"
+                    + " ('Emma', 'Jane Austen', 1001, '" + BookRecord.CHECKED_OUT + "')");
+        }
+        assertEquals(1, SchemaBootstrap.migrate(connection));
+
+        // Each barcode statement changes one of the copies
+        try (PreparedStatement checkIn = connection.prepareStatement(BookRepository.CHECK_IN_BY_BARCODE)) {
+            checkIn.setInt(1, 1001);
+            assertEquals(1, checkIn.executeUpdate());
+        }
+        try (PreparedStatement delete = connection.prepareStatement(BookRepository.DELETE_BY_BARCODE)) {
+            delete.setInt(1, 1001);
+            assertEquals(1, delete.executeUpdate());
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM books WHERE barcode = 1001")) {
+            assertTrue(resultSet.next());
+            assertEquals(1, resultSet.getInt(1));
+        }
+    }
+
+    @Test
+    void testLookupsUseIndexes() throws SQLException {
+        SchemaBootstrap.migrate(connection);
+
+        assertUsesIndex(BookRepository.DELETE_BY_BARCODE, "idx_books_barcode");
+        assertUsesIndex(BookRepository.CHECK_OUT_BY_BARCODE, "idx_books_barcode");
+        assertUsesIndex(BookRepository.CHECK_IN_BY_BARCODE, "idx_books_barcode");
+        assertUsesIndex(BookRepository.CHECK_OUT_BY_TITLE, "idx_books_title");
+        assertUsesIndex(BookRepository.CHECK_IN_BY_TITLE, "idx_books_title");
+        assertUsesIndex(BookRepository.FIND_OVERDUE, "idx_books_status_due_date");
+        assertUsesIndex(BookRepository.FIND_DUE_BETWEEN, "idx_books_status_due_date");
+    }
+
+    private void assertUsesIndex(String sql, String index) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("EXPLAIN QUERY PLAN " + sql.replace("?", "NULL"))) {
+            while (resultSet.next()) {
+                plan.append(resultSet.getString("detail")).append('\n');
+            }
+        }
+        assertTrue(plan.toString().contains("USING INDEX " + index)
+                        || plan.toString().contains("USING COVERING INDEX " + index),
+                "Expected " + index + " in plan for " + sql + ":\n" + plan);
+        assertFalse(plan.toString().contains("SCAN books"), "Full table scan for " + sql + ":\n" + plan);
+        assertFalse(plan.toString().contains("TEMP B-TREE"), "Sort outside the index for " + sql + ":\n" + plan);
+    }
+}
@@ -0,0 +1,262 @@
+package JDBC;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import catalog.Book;
+import catalog.CatalogChange;
+import catalog.CatalogStore;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: SqliteCatalogStore
+ * Description: CatalogStore on the books table of an SQLite database, by default
+ * LMSlibrary.db. JDBC_GUI always uses this store, and any other program opened on the same
+ * file sees the same catalog. Book.available
+ * is stored as the table's status strings (BookRecord.CHECKED_IN / CHECKED_OUT), and the
+ * statements are BookRepository's, so both write rows the same way. The book ID and checkout date have their own
+ * columns (schema version 3); rows added by other tools have no book ID and use their rowid.
+ * Barcodes may repeat, so each loaded or inserted book is mapped to its row's rowid and
+ * changes are written by rowid. Each write is one transaction. A status change only applies
+ * if the row still has the status it had (another program may have changed it); if it does
+ * not, or the row is gone, the whole write fails and Library reloads the catalog.
+ */
+public class SqliteCatalogStore implements CatalogStore {
+    public static final String DEFAULT_URL = "jdbc:sqlite:LMSlibrary.db";
+
+    private final String url;
+    private final ConnectionPool pool;
+    // The row each book was loaded from or inserted as
+    private final Map<Book, Long> rowIds = new IdentityHashMap<>();
+    // PRAGMA data_version when the books were last loaded
+    private long loadedVersion = -1;
+
+    /**
+     * Constructor for the SqliteCatalogStore class. Creates or upgrades the schema.
+     * @param url The JDBC URL, e.g. DEFAULT_URL.
+     * @throws IOException If the database cannot be opened or migrated.
+     */
+    public SqliteCatalogStore(String url) throws IOException {
+        this.url = url;
+        // Every call comes from the library thread, so one connection is enough
+        this.pool = new ConnectionPool(url, 1, SchemaBootstrap::configure);
+        try {
+            SchemaBootstrap.migrate(pool);
+        } catch (SQLException e) {
+            pool.close();
+            throw new IOException("Error opening " + url + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return url;
+    }
+
+    @Override
+    public Contents load() throws IOException {
+        List<Book> books = new ArrayList<>();
+        rowIds.clear();
+        try (PooledConnection connection = pool.borrow()) {
+            // Read first: a commit made while the rows are read shows up as a change next time
+            loadedVersion = dataVersion(connection);
+            try (ResultSet resultSet = connection.prepare(BookRepository.FIND_ALL_ROWS).executeQuery()) {
+                while (resultSet.next()) {
+                    long rowId = resultSet.getLong("rowid");
+                    long bookId = resultSet.getLong("book_id");
+                    int id = resultSet.wasNull() ? (int) rowId : (int) bookId;
+                    Book book = new Book(id, resultSet.getString("title"), resultSet.getString("author"),
+                            resultSet.getString("barcode"), !BookRecord.CHECKED_OUT.equals(resultSet.getString("status")),
+                            toLocalDate(resultSet.getDate("due_date")), toLocalDate(resultSet.getDate("checkout_date")));
+                    books.add(book);
+                    rowIds.put(book, rowId);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("Error reading " + url + ": " + e.getMessage(), e);
+        }
+        System.out.println("Books loaded successfully from database.");
+        return new Contents(books, null);
+    }
+
+    /**
+     * Method to tell whether another connection (another program, such as a second JDBC_GUI)
+     * committed to the database since the books were loaded. Costs one PRAGMA, no table read.
+     * @return true if load() may now return different books.
+     * @throws IOException If the database cannot be read.
+     */
+    @Override
+    public boolean hasExternalChanges() throws IOException {
+        try (PooledConnection connection = pool.borrow()) {
+            return dataVersion(connection) != loadedVersion;
+        } catch (SQLException e) {
+            throw new IOException("Error reading " + url + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Only meaningful on one connection; the pool's single connection stays open
+    private static long dataVersion(PooledConnection connection) throws SQLException {
+        try (ResultSet resultSet = connection.prepare(BookRepository.DATA_VERSION).executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    @Override
+    public void write(List<CatalogChange> changes, List<Book> books) throws IOException {
+        // Rowids of the books inserted (or null for those deleted) by this write
+        Map<Book, Long> written = new IdentityHashMap<>();
+        inTransaction(connection -> {
+            for (CatalogChange change : changes) {
+                Book book = change.getBook();
+                switch (change.getType()) {
+                    case ADD:
+                        written.put(book, insert(connection, book));
+                        break;
+                    case REMOVE:
+                        PreparedStatement delete = connection.prepare(BookRepository.DELETE_BY_ROWID);
+                        delete.setLong(1, rowIdOf(book, written));
+                        expectOneRow(delete.executeUpdate(), book);
+                        written.put(book, null);
+                        break;
+                    case CHECK_OUT:
+                        if (written.get(book) != null) {
+                            break; // inserted by this write as it is now
+                        }
+                        PreparedStatement checkOut = connection.prepare(BookRepository.CHECK_OUT_BY_ROWID);
+                        setDate(checkOut, 1, change.getDueDate());
+                        setDate(checkOut, 2, change.getCheckoutDate());
+                        checkOut.setLong(3, rowIdOf(book, written));
+                        expectOneRow(checkOut.executeUpdate(), book);
+                        break;
+                    case CHECK_IN:
+                        if (written.get(book) != null) {
+                            break;
+                        }
+                        PreparedStatement checkIn = connection.prepare(BookRepository.CHECK_IN_BY_ROWID);
+                        checkIn.setLong(1, rowIdOf(book, written));
+                        expectOneRow(checkIn.executeUpdate(), book);
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown change " + change.getType());
+                }
+            }
+        });
+        // Only once the transaction committed
+        for (Map.Entry<Book, Long> entry : written.entrySet()) {
+            if (entry.getValue() == null) {
+                rowIds.remove(entry.getKey());
+            } else {
+                rowIds.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    @Override
+    public void writeAll(List<Book> books) throws IOException {
+        Map<Book, Long> inserted = new IdentityHashMap<>();
+        inTransaction(connection -> {
+            connection.prepare(BookRepository.DELETE_ALL).executeUpdate();
+            for (Book book : books) {
+                inserted.put(book, insert(connection, book));
+            }
+        });
+        rowIds.clear();
+        rowIds.putAll(inserted);
+    }
+
+    /**
+     * Method that does nothing: every write is already committed to the database.
+     */
+    @Override
+    public void checkpoint(List<Book> books) {
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    /**
+     * Work run inside a transaction.
+     */
+    private interface TransactionWork {
+        void run(PooledConnection connection) throws SQLException;
+    }
+
+    private void inTransaction(TransactionWork work) throws IOException {
+        try (PooledConnection pooled = pool.borrow()) {
+            Connection connection = pooled.getConnection();
+            connection.setAutoCommit(false);
+            try {
+                work.run(pooled);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackFailure) {
+                    // Keep the failure that caused the rollback; the broken rollback is secondary
+                    e.addSuppressed(rollbackFailure);
+                }
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Error writing to " + url + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Inserts the book and returns its rowid
+    private static long insert(PooledConnection connection, Book book) throws SQLException {
+        PreparedStatement insert = connection.prepare(BookRepository.INSERT);
+        insert.setInt(1, book.getId());
+        insert.setString(2, book.getTitle());
+        insert.setString(3, book.getAuthor());
+        insert.setString(4, book.getBarcode());
+        insert.setString(5, book.isAvailable() ? BookRecord.CHECKED_IN : BookRecord.CHECKED_OUT);
+        setDate(insert, 6, book.getDueDate());
+        setDate(insert, 7, book.getCheckoutDate());
+        try (ResultSet resultSet = insert.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private long rowIdOf(Book book, Map<Book, Long> written) throws SQLException {
+        Long rowId = written.containsKey(book) ? written.get(book) : rowIds.get(book);
+        if (rowId == null) {
+            throw new SQLException("Book " + book.getId() + " (barcode " + book.getBarcode() + ") is not in the database");
+        }
+        return rowId;
+    }
+
+    private static void expectOneRow(int changed, Book book) throws SQLException {
+        if (changed != 1) {
+            throw new SQLException("Book " + book.getId() + " (barcode " + book.getBarcode()
+                    + ") was changed or removed by another program");
+        }
+    }
+
+    private static void setDate(PreparedStatement statement, int index, LocalDate date) throws SQLException {
+        if (date == null) {
+            statement.setNull(index, Types.DATE);
+        } else {
+            statement.setDate(index, Date.valueOf(date));
+        }
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date == null ? null : date.toLocalDate();
+    }
+}
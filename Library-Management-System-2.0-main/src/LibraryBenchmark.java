@@ -0,0 +1,147 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import JDBC.SqliteCatalogStore;
+import catalog.Book;
+import catalog.BookDataGenerator;
+import catalog.CatalogStore;
+import catalog.FileCatalogStore;
+import catalog.Library;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: LibraryBenchmark
+ * Description: Benchmarks the Library hot paths (lookup, checkout/checkin, removal,
+ * load, save and display) over generated catalogs of increasing size, on each
+ * CatalogStore picked with -Dbench.stores (default "file"; e.g. file,sqlite,memory).
+ * Catalogs come from BookDataGenerator with a fixed seed, so every run measures the
+ * same data. Each operation is warmed up and then run for a fixed time budget, and every
+ * result is folded into a sink so the JIT cannot drop the call. Every operation leaves the
+ * catalog the size it found it, so the later rows measure the full catalog.
+ * For forked, statistically sound numbers use the JMH module in benchmarks/ instead.
+ * Usage: java LibraryBenchmark [catalog sizes...]   (default 1000 10000 100000 1000000)
+ * The budget per operation is set with -Dbench.millis (default 2000).
+ */
+public class LibraryBenchmark {
+    private static final long BUDGET_MILLIS = Long.getLong("bench.millis", 2000);
+    private static final String[] STORES = System.getProperty("bench.stores", CatalogStore.FILE).split(",");
+    private static final int WARMUP_OPS = 3;
+    private static final PrintStream CONSOLE = System.out;
+    // Results are folded in here and printed at the end, so no measured call is dead code
+    private static long sink;
+
+    public static void main(String[] args) throws IOException {
+        List<Integer> sizes = new ArrayList<>();
+        for (String arg : args) {
+            sizes.add(Integer.parseInt(arg));
+        }
+        if (sizes.isEmpty()) {
+            sizes = List.of(1_000, 10_000, 100_000, 1_000_000);
+        }
+
+        CONSOLE.printf("%-8s %-28s %12s %16s %14s%n", "Store", "Operation", "Books", "ns/op", "ops/s");
+        for (String store : STORES) {
+            for (int size : sizes) {
+                Path directory = Files.createTempDirectory("library-benchmark");
+                try {
+                    runCatalog(store, directory, size);
+                } finally {
+                    System.setOut(CONSOLE);
+                    deleteDirectory(directory);
+                }
+            }
+        }
+        CONSOLE.println("(sink " + sink + ")");
+    }
+
+    private static void runCatalog(String kind, Path directory, int size) throws IOException {
+        String fileName = directory.resolve("books.txt").toString();
+        List<Book> generated = new BookDataGenerator(BookDataGenerator.DEFAULT_SEED).generate(size);
+        Files.write(Path.of(fileName), generated.stream().map(Book::toFileString).toList());
+
+        // Library reports every save and load on stdout; silence it while measuring
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        CatalogStore store = openStore(kind, directory, fileName);
+        Library library = new Library(store);
+        Random random = new Random(BookDataGenerator.DEFAULT_SEED);
+
+        measure(kind, "findBookByTitle", size, () -> {
+            String title = generated.get(random.nextInt(size)).getTitle();
+            consume(library.findBookByTitle(title));
+        });
+        measure(kind, "checkOutBook+checkInBook", size, () -> checkOutAndIn(library, generated.get(random.nextInt(size))));
+        measure(kind, "removeBookByBarcode+addBook", size, () -> {
+            // Put a copy of each removed book back, so the catalog keeps its size for the rows below
+            Book book = library.findBookByBarcode(generated.get(random.nextInt(size)).getBarcode());
+            library.removeBookByBarcode(book.getBarcode());
+            consume(library.addBook(new Book(book.getId(), book.getTitle(), book.getAuthor(), book.getBarcode(),
+                    book.isAvailable(), book.getDueDate(), book.getCheckoutDate())));
+        });
+        measure(kind, "reload", size, library::reload);
+        measure(kind, "saveBooksToFile", size, library::saveBooksToFile);
+        measure(kind, "displayDatabase", size, library::displayDatabase);
+
+        if (store instanceof FileCatalogStore) {
+            library.enableJournal(0, 3600);
+            measure(kind, "checkOut+checkIn (journal)", size, () -> checkOutAndIn(library, generated.get(random.nextInt(size))));
+        }
+        library.close();
+    }
+
+    // The SQLite database is filled from the same generated books as the file
+    private static CatalogStore openStore(String kind, Path directory, String fileName) throws IOException {
+        if (!kind.equals(CatalogStore.SQLITE)) {
+            return CatalogStore.open(kind, fileName);
+        }
+        CatalogStore store = new SqliteCatalogStore("jdbc:sqlite:" + directory.resolve("books.db"));
+        store.writeAll(new FileCatalogStore(fileName).load().getBooks());
+        return store;
+    }
+
+    private static void checkOutAndIn(Library library, Book target) {
+        Book book = library.checkOutBook(target.getTitle());
+        if (book != null) {
+            consume(library.checkInBook(book.getTitle()));
+        }
+    }
+
+    private static void consume(Object result) {
+        sink += System.identityHashCode(result);
+    }
+
+    /**
+     * Method to warm an operation up, then run it until the time budget is used
+     * (at least once) and print the mean cost.
+     */
+    private static void measure(String store, String name, int size, Runnable operation) {
+        for (int i = 0; i < WARMUP_OPS; i++) {
+            operation.run();
+        }
+        long budget = BUDGET_MILLIS * 1_000_000L;
+        long operations = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            operation.run();
+            operations++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < budget);
+        double nanosPerOp = (double) elapsed / operations;
+        CONSOLE.printf("%-8s %-28s %,12d %,16.0f %,14.1f%n", store, name, size, nanosPerOp, 1e9 / nanosPerOp);
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+}
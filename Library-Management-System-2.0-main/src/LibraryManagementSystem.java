@@ -1,6 +1,9 @@
+import java.io.IOException;
 import java.util.Scanner;
-import java.util.ArrayList;
-import java.util.Comparator;
+import catalog.Book;
+import catalog.CatalogStore;
+import catalog.Library;
+import metrics.Metrics;
 
 /**
  * Author: Candy Torres
@@ -21,14 +24,23 @@ public class LibraryManagementSystem {
      */
 
     public static void main(String[] args) {
-        Library library = new Library("books.txt"); // Create a Library object with a database file name
+        // Write operation metrics to a file if -Dmetrics.file is set
+        Metrics.startFileDumpIfConfigured();
+        // Create a Library on books.txt (or the store picked with -Dlibrary.store); it loads the books on construction
+        Library library;
+        try {
+            library = new Library(CatalogStore.forSystemProperties("books.txt"));
+        } catch (IOException e) {
+            System.out.println("Error opening the catalog: " + e.getMessage());
+            return;
+        }
         Scanner scanner = new Scanner(System.in);
 
-        // Load books from file on startup
-        library.loadBooksFromFile("books.txt");
+        // Journal each change instead of rewriting the whole file (fsync every record, compact every 5 minutes)
+        library.enableJournal(1, 300);
 
-        // Add shutdown hook to save to file when program exits
-        Runtime.getRuntime().addShutdownHook(new Thread(library::saveBooksToFile));
+        // Add shutdown hook to save and close the catalog when program exits
+        Runtime.getRuntime().addShutdownHook(new Thread(library::close));
 
         boolean active = true;
         while (active) {
@@ -145,6 +157,8 @@ public class LibraryManagementSystem {
             System.out.println(checkedOutBook);
             System.out.println("Checkout Date: " + checkedOutBook.getCheckoutDate());
             System.out.println("Due Date: " + checkedOutBook.getDueDate());
+            System.out.println("Copies still available: " + library.getAvailableCopies(checkoutTitle)
+                    + " of " + library.getTotalCopies(checkoutTitle));
         }
     }
     /**
@@ -164,9 +178,8 @@ public class LibraryManagementSystem {
      */
     private static void displayDatabase(Library library) {
         System.out.println("Displaying contents of the database in ascending order by book ID:");
-        ArrayList<Book> sortedBooks = library.getBooks();
-        sortedBooks.sort(Comparator.comparingInt(Book::getId));
-        for (Book book : sortedBooks) {
+        // The library keeps an ID-ordered index, so nothing is sorted here
+        for (Book book : library.booksInIdOrder()) {
             System.out.println(book);
         }
     }
@@ -1,9 +1,31 @@
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
+import java.awt.event.ActionListener;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Iterator;
-import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BiConsumer;
+import catalog.Book;
+import catalog.CatalogStore;
+import catalog.Library;
+import catalog.LibraryOperations;
+import catalog.LibraryTableModel;
+import catalog.ParallelBookImporter;
+import metrics.Metrics;
 
 /* Author: Candy Torres
  * Course: Software Development I - CEN 3024C
@@ -14,16 +36,39 @@ import java.io.File;
  * checking books in/out, upload books from a txt file, and database display.
  */
 public class MainFrame extends JFrame {
+    // Most results the search page lists
+    private static final int SEARCH_RESULT_LIMIT = 200;
+    // Title suggestions under the checkout and check-in fields, and how long typing must pause before they update
+    private static final int TITLE_SUGGESTION_LIMIT = 8;
+    private static final int TITLE_SUGGESTION_DELAY_MILLIS = 150;
 
-    // Reference to the library instance
-    private final Library library;
+    // All library work runs on the operations thread, never on the Swing thread
+    private final LibraryOperations operations;
 
     public MainFrame() {
+        this(new Library("books.txt"));
+    }
+
+    /**
+     * Constructor for the MainFrame class on a library that has already been loaded.
+     * @param library The library to manage, on any CatalogStore.
+     */
+    public MainFrame(Library library) {
         setTitle("Library Management System");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
-        // Initialize the library
-        library = new Library("books.txt");
+        // Journal each change instead of rewriting the whole file (fsync every record, compact every 5 minutes)
+        library.enableJournal(1, 300);
+        operations = new LibraryOperations(library);
+
+        // Write overdue notices to the outbox every night at 2 AM
+        ScheduledExecutorService noticeScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "overdue-notices");
+            thread.setDaemon(true);
+            return thread;
+        });
+        new OverdueNoticeJob(Path.of("overdue-notices.outbox"), Path.of("overdue-notices.watermark"), 500)
+                .scheduleDaily(operations, LocalTime.of(2, 0), noticeScheduler);
 
         // Create main panel to hold components
         JPanel mainPanel = new JPanel(new BorderLayout());
@@ -49,6 +94,9 @@ public class MainFrame extends JFrame {
         JButton checkOutButton = new JButton("Check Out a book");
         JButton checkInButton = new JButton("Check In a book");
         JButton displayButton = new JButton("Display database");
+        JButton searchButton = new JButton("Search books");
+        JButton overdueButton = new JButton("Overdue books");
+        JButton dueSoonButton = new JButton("Books due soon");
         JButton exitButton = new JButton("Exit");
 
         // Add buttons to button panel
@@ -59,6 +107,9 @@ public class MainFrame extends JFrame {
         buttonPanel.add(checkOutButton);
         buttonPanel.add(checkInButton);
         buttonPanel.add(displayButton);
+        buttonPanel.add(searchButton);
+        buttonPanel.add(overdueButton);
+        buttonPanel.add(dueSoonButton);
         buttonPanel.add(exitButton);
 
         // Add button panel to main panel
@@ -66,7 +117,7 @@ public class MainFrame extends JFrame {
         // Add main panel to frame
         add(mainPanel);
         // Set frame size
-        setSize(400, 400);
+        setSize(400, 500);
         setLocationRelativeTo(null); // Center the frame on the screen
 
         // Add action listeners
@@ -76,13 +127,19 @@ public class MainFrame extends JFrame {
         removeByTitleButton.addActionListener(event -> navigateToRemoveByTitlePage());
         checkOutButton.addActionListener(event -> navigateToCheckOutPage());
         checkInButton.addActionListener(event -> navigateToCheckInPage());
-        displayButton.addActionListener(event -> navigateToDisplayDatabasePage());
-        exitButton.addActionListener(event -> confirmExit());
+        displayButton.addActionListener(event -> navigateToDisplayDatabasePage(displayButton));
+        searchButton.addActionListener(event -> navigateToSearchPage());
+        overdueButton.addActionListener(event -> navigateToOverduePage(overdueButton));
+        dueSoonButton.addActionListener(event -> navigateToDueSoonPage(dueSoonButton));
+        exitButton.addActionListener(event -> confirmExit(exitButton));
     }
 
     /**
      * Method: importBooks
      * This method allows the user to import books from a selected file into the LMS database.
+     * The file is parsed in parallel on a background thread while a progress bar is shown,
+     * and the parsed books are merged into the library in one step when parsing finishes.
+     * The Swing thread only updates the progress bar and shows the result.
      */
     private void importBooks() {
         // Create a file chooser dialog
@@ -99,12 +156,33 @@ public class MainFrame extends JFrame {
             // Get the selected file
             File selectedFile = fileChooser.getSelectedFile();
 
-            // Attempt to import books from the selected file to LMS database
-            Library library = new Library(selectedFile.getAbsolutePath());
-            library.loadBooksFromFile(selectedFile.getAbsolutePath());
-
-            // Confirmation message display  when books were imported successfully
-            JOptionPane.showMessageDialog(this, "Books imported successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+            // Progress dialog shown while the import runs
+            JDialog progressDialog = new JDialog(this, "Importing Books", false);
+            JProgressBar progressBar = new JProgressBar(0, 100);
+            progressBar.setStringPainted(true);
+            progressBar.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+            progressDialog.add(progressBar, BorderLayout.CENTER);
+            progressDialog.setSize(300, 90);
+            progressDialog.setLocationRelativeTo(this);
+
+            // Parse in the background; progress is forwarded to the progress bar on the Swing thread
+            CompletableFuture<ParallelBookImporter.Result> importing = operations.importBooks(selectedFile.toPath(),
+                    (bytesDone, totalBytes) -> SwingUtilities.invokeLater(() ->
+                            progressBar.setValue(totalBytes == 0 ? 100 : (int) (bytesDone * 100 / totalBytes))));
+            progressDialog.setVisible(true);
+            runInBackground(importing, null, (imported, error) -> {
+                progressDialog.dispose();
+                if (error != null) {
+                    JOptionPane.showMessageDialog(this, "Error importing books: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                // Confirmation message display when books were imported successfully
+                String message = imported.getBooks().size() + " books imported successfully.";
+                if (imported.getMalformedLines() > 0) {
+                    message += "\n" + imported.getMalformedLines() + " invalid lines were skipped.";
+                }
+                JOptionPane.showMessageDialog(this, message, "Success", JOptionPane.INFORMATION_MESSAGE);
+            });
         } else {
             // Confirmation message display if the user canceled or closed the dialog without selecting a file
             JOptionPane.showMessageDialog(this, "No file selected.", "Information", JOptionPane.INFORMATION_MESSAGE);
@@ -174,13 +252,21 @@ public class MainFrame extends JFrame {
             // Create a new book object
             Book book = new Book(id, title, author, barcode, true, null, null);
 
-            // Add the book to the library
-            library.addBook(book);
-
-            // Display a confirmation message
-            JOptionPane.showMessageDialog(dialog, "Book saved successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
-            // Close the dialog after saving
-            dialog.dispose();
+            // Add the book to the library in the background
+            runInBackground(operations.addBook(book), saveButton, (saved, error) -> {
+                if (error != null) {
+                    JOptionPane.showMessageDialog(dialog, "Error saving book: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                if (!saved) {
+                    JOptionPane.showMessageDialog(dialog, "Error saving book; the library was reloaded.", "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                // Display a confirmation message
+                JOptionPane.showMessageDialog(dialog, "Book saved successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
+                // Close the dialog after saving
+                dialog.dispose();
+            });
         });
         buttonPanel.add(saveButton);
 
@@ -206,29 +292,6 @@ public class MainFrame extends JFrame {
         panel.add(textField);
     }
 
-    /**
-     * Method to remove a book from the library by its barcode.
-     * This method iterates through the list of books in the LMS library and removes the book with the barcode.
-     * it then saves the changes in the database.
-     * @param barcode The barcode of the book to be removed.
-     * @return true if the book is successfully removed, false if the book with the specified barcode is not found.
-     */
-    private boolean removeBookByBarcode(String barcode) {
-        Book bookToRemove = null;
-        for (Book book : library.getBooks()) {
-            if (book.getBarcode().equals(barcode)) {
-                bookToRemove = book;
-                break;
-            }
-        }
-        if (bookToRemove != null) {
-            library.getBooks().remove(bookToRemove);
-            library.saveBooksToFile(); // Save changes to file after removing a book
-            return true;
-        } else {
-            return false; // Return false if the book with the specified barcode is not found
-        }
-    }
     /**
      * Method to navigate to "Remove a Book by barcode" page
      */
@@ -254,13 +317,17 @@ public class MainFrame extends JFrame {
         JButton removeButton = new JButton("Remove");
         removeButton.addActionListener(event -> {
             String barcode = barcodeField.getText();
-            boolean removed = removeBookByBarcode(barcode);
-            if (removed) {
-                JOptionPane.showMessageDialog(dialog, "Book removed successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
-            } else {
-                JOptionPane.showMessageDialog(dialog, "Book with barcode " + barcode + " not found", "Error", JOptionPane.ERROR_MESSAGE);
-            }
-            dialog.dispose(); // Close the dialog after removing the book
+            // Library saves changes to file after removing a book
+            runInBackground(operations.removeBookByBarcode(barcode), removeButton, (removed, error) -> {
+                if (error != null) {
+                    JOptionPane.showMessageDialog(dialog, "Error removing book: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                } else if (removed) {
+                    JOptionPane.showMessageDialog(dialog, "Book removed successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(dialog, "Book with barcode " + barcode + " not found", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+                dialog.dispose(); // Close the dialog after removing the book
+            });
         });
         buttonPanel.add(removeButton);
 
@@ -279,32 +346,6 @@ public class MainFrame extends JFrame {
         dialog.setVisible(true);
     }
 
-    /**
-     * Method to remove a book by its title
-     */
-    private boolean removeBookByTitle(String title) {
-        // Convert the title to lowercase for case-insensitive comparison
-        String lowercaseTitle = title.toLowerCase();
-
-        // Get the list of books from the library
-        List<Book> books = library.getBooks();
-        if (books != null) {
-
-            // Create an iterator to iterate over the list
-            Iterator<Book> iterator = books.iterator();
-            while (iterator.hasNext()) {
-                Book book = iterator.next();
-                // Compare the lowercase titles
-                if (book.getTitle().toLowerCase().equals(lowercaseTitle)) {
-                    iterator.remove(); // Remove the book from the list
-                    library.saveBooksToFile(); // Save the updated list to the file
-                    return true;
-                }
-            }
-        }
-        return false; // returns book not found or list is empty
-    }
-
     /**
      * Method to navigate to "Remove a book by title" page
      * This segment allows the user to remove a book by its title name.
@@ -331,13 +372,17 @@ public class MainFrame extends JFrame {
         JButton removeButton = new JButton("Remove");
         removeButton.addActionListener(event -> {
             String title = titleField.getText(); // Get the title input
-            boolean removed = removeBookByTitle(title); // Call removeBookByTitle with the entered title
-            if (removed) {
-                JOptionPane.showMessageDialog(dialog, "Book removed successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
-            } else {
-                JOptionPane.showMessageDialog(dialog, "Book with Title " + title + " not found", "Error", JOptionPane.ERROR_MESSAGE);
-            }
-            dialog.dispose();
+            // Case-insensitive lookup through the library's title index
+            runInBackground(operations.removeBookByTitle(title), removeButton, (removed, error) -> {
+                if (error != null) {
+                    JOptionPane.showMessageDialog(dialog, "Error removing book: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                } else if (removed) {
+                    JOptionPane.showMessageDialog(dialog, "Book removed successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(dialog, "Book with Title " + title + " not found", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+                dialog.dispose();
+            });
         });
         buttonPanel.add(removeButton);
 
@@ -355,16 +400,6 @@ public class MainFrame extends JFrame {
         dialog.setLocationRelativeTo(this);
         dialog.setVisible(true);
     }
-    /**
-     * Method to check out a book by its title.
-     * it returns true if the book was successfully checked out, or false otherwise.
-     */
-    private boolean checkOutBook(String title) {
-        // Call the checkOutBook method from the LMS library and return true if a book object is returned
-        // (indicating the book was successfully checked out), or false.
-
-        return library.checkOutBook(title) != null;
-    }
     /**
      * Method to navigate to the "Check out a book" page.
      * This method displays a dialog window for the user to enter the title of the book they wish to check out.
@@ -384,6 +419,8 @@ public class MainFrame extends JFrame {
         JTextField titleField = new JTextField();
         inputPanel.add(new JLabel("Please enter title to check out: "));
         inputPanel.add(titleField);
+        // Suggest available titles as the user types
+        JScrollPane suggestions = addTitleSuggestions(titleField, true);
 
         // Panel for buttons
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
@@ -393,15 +430,17 @@ public class MainFrame extends JFrame {
         JButton checkOutButton = new JButton("Check Out");
         checkOutButton.addActionListener(event -> {
             String title = titleField.getText();
-            boolean checkedOut = checkOutBook(title);
-            if (checkedOut) {
-                Book checkedOutBook = library.findBookByTitle(title);
-                LocalDate dueDate = checkedOutBook.getDueDate();
-                JOptionPane.showMessageDialog(dialog, "Book checked out successfully.\nDue date: " + dueDate, "Success", JOptionPane.INFORMATION_MESSAGE);
-                dialog.dispose();
-            } else {
-                JOptionPane.showMessageDialog(dialog, "Book with title " + title + " is already checked out or not found", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            // The library returns the checked out book, or null if it is not available
+            runInBackground(operations.checkOutBook(title), checkOutButton, (checkedOutBook, error) -> {
+                if (error != null) {
+                    JOptionPane.showMessageDialog(dialog, "Error checking out book: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                } else if (checkedOutBook != null) {
+                    JOptionPane.showMessageDialog(dialog, "Book checked out successfully.\nDue date: " + checkedOutBook.getDueDate(), "Success", JOptionPane.INFORMATION_MESSAGE);
+                    dialog.dispose();
+                } else {
+                    JOptionPane.showMessageDialog(dialog, "Book with title " + title + " is already checked out or not found", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         });
         buttonPanel.add(checkOutButton);
 
@@ -410,42 +449,16 @@ public class MainFrame extends JFrame {
         cancelButton.addActionListener(event -> dialog.dispose());
         buttonPanel.add(cancelButton);
 
-        // Add input panel and button panel to dialog
-        dialog.add(inputPanel, BorderLayout.CENTER);
+        // Add input panel, suggestions and button panel to dialog
+        dialog.add(inputPanel, BorderLayout.NORTH);
+        dialog.add(suggestions, BorderLayout.CENTER);
         dialog.add(buttonPanel, BorderLayout.SOUTH);
 
         // Set dialog size and visibility
-        dialog.setSize(300, 150);
+        dialog.setSize(300, 300);
         dialog.setLocationRelativeTo(this);
         dialog.setVisible(true);
     }
-    /**
-     * Method to check in a book with its title.
-     * this method updates the status of a book with the specified title to "checked-in" in the LMS library database.
-     * If the book is successfully checked-in, the availability status is updated, and due date is set to null.
-     * If the book is already checked in, an error message will be displayed.
-     */
-    private boolean checkInBook(String title) {
-        // call checkInBook method from the library
-        Book bookToCheckIn = library.findBookByTitle(title);
-
-        if (bookToCheckIn != null && !bookToCheckIn.isAvailable()) {
-            // Update book status to "check in"
-            bookToCheckIn.setAvailable(true);
-            // Set due date to null (this indicates that the book is no longer checked out)
-            bookToCheckIn.setDueDate(null); // set due date to null
-            // Display success message
-            JOptionPane.showMessageDialog(null, "Book checked in successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
-            return true;
-        } else if (bookToCheckIn != null) {
-            // Display error message if the book is already checked in
-            JOptionPane.showMessageDialog(null, "Book with title " + title + " is already checked in", "Error", JOptionPane.ERROR_MESSAGE);
-        } else {
-            // Display error message if book is not found in the database
-            JOptionPane.showMessageDialog(null, "Book with title " + title + " not found", "Error", JOptionPane.ERROR_MESSAGE);
-        }
-        return false;
-    }
     /**
      * Method to navigate to "Check in a book" page.
      * This method display a dialog box where the user can input the title of the book they wish to check in.
@@ -464,6 +477,8 @@ public class MainFrame extends JFrame {
         JTextField titleField = new JTextField();
         inputPanel.add(new JLabel("Please enter title to check in: "));
         inputPanel.add(titleField);
+        // Suggest checked out titles as the user types
+        JScrollPane suggestions = addTitleSuggestions(titleField, false);
 
         // Create panel for buttons
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
@@ -473,8 +488,17 @@ public class MainFrame extends JFrame {
         JButton checkInButton = new JButton("Check in");
         checkInButton.addActionListener(event -> {
             String title = titleField.getText();
-            checkInBook(title);
-            dialog.dispose();
+            // The library clears the due date and journals the check-in
+            runInBackground(operations.checkInBook(title), checkInButton, (checkedIn, error) -> {
+                if (error != null) {
+                    JOptionPane.showMessageDialog(dialog, "Error checking in book: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                } else if (checkedIn) {
+                    JOptionPane.showMessageDialog(dialog, "Book checked in successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(dialog, "Book with title " + title + " is already checked in or not found", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+                dialog.dispose();
+            });
         });
         buttonPanel.add(checkInButton);
 
@@ -483,70 +507,275 @@ public class MainFrame extends JFrame {
         cancelButton.addActionListener(event -> dialog.dispose());
         buttonPanel.add(cancelButton);
 
-        // Add input panel and button panel to dialog
-        dialog.add(inputPanel, BorderLayout.CENTER);
+        // Add input panel, suggestions and button panel to dialog
+        dialog.add(inputPanel, BorderLayout.NORTH);
+        dialog.add(suggestions, BorderLayout.CENTER);
         dialog.add(buttonPanel, BorderLayout.SOUTH);
 
         // Set dialog size and visibility
-        dialog.setSize(300, 150);
+        dialog.setSize(300, 300);
         dialog.setLocationRelativeTo(this);
         dialog.setVisible(true);
     }
+    /**
+     * Method to show title suggestions below a title field. The library is asked only after
+     * typing pauses, on the operations thread, so the Swing thread never waits for it; answers
+     * for text that has since changed are dropped. Choosing a suggestion (click, or Down then
+     * Enter) copies it into the field.
+     */
+    private JScrollPane addTitleSuggestions(JTextField titleField, boolean available) {
+        DefaultListModel<String> model = new DefaultListModel<>();
+        JList<String> list = new JList<>(model);
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        Timer debounce = new Timer(TITLE_SUGGESTION_DELAY_MILLIS, event -> {
+            String prefix = titleField.getText();
+            if (prefix.isBlank()) {
+                model.clear();
+                return;
+            }
+            operations.completeTitles(prefix, available, TITLE_SUGGESTION_LIMIT).whenCompleteAsync((titles, error) -> {
+                if (error != null) {
+                    System.out.println("Error completing title: " + error.getMessage());
+                } else if (prefix.equals(titleField.getText())) {
+                    model.clear();
+                    model.addAll(titles);
+                }
+            }, SwingUtilities::invokeLater);
+        });
+        debounce.setRepeats(false);
+        titleField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+        });
+
+        // Down arrow moves from the field into the suggestions
+        titleField.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_DOWN && !model.isEmpty()) {
+                    list.requestFocusInWindow();
+                    list.setSelectedIndex(0);
+                }
+            }
+        });
+        Runnable choose = () -> {
+            String title = list.getSelectedValue();
+            if (title != null) {
+                titleField.setText(title);
+                titleField.requestFocusInWindow();
+            }
+        };
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                choose.run();
+            }
+        });
+        list.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_ENTER) {
+                    choose.run();
+                }
+            }
+        });
+
+        JScrollPane scrollPane = new JScrollPane(list);
+        scrollPane.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createEmptyBorder(0, 10, 0, 10), scrollPane.getBorder()));
+        return scrollPane;
+    }
+
     /**
      * Method to navigate to display the books saved in the Library Management System database.
+     * A copy of the book list is taken on the library thread; the table reads each row from it
+     * only when it is painted, so the view opens immediately however large the catalog is.
      */
-    private void navigateToDisplayDatabasePage() {
-        // Call the displayDatabase() method to update the library data if needed
-        library.displayDatabase();
+    private void navigateToDisplayDatabasePage(JButton displayButton) {
+        runInBackground(operations.snapshot(), displayButton, (books, error) -> {
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Error reading books: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            // Create a new dialog window to display the database contents
+            JDialog dialog = new JDialog(this, "Library Database", true);
+            dialog.setLayout(new BorderLayout());
+
+            // Create a read-only table over the copied book list
+            JTable table = new JTable(new LibraryTableModel(books));
+            table.setFillsViewportHeight(true);
 
-        // Create a new dialog window to display the database contents
-        JDialog dialog = new JDialog(this, "Library Database", true);
+            // Add the table to a scroll pane to enable scrolling
+            JScrollPane scrollPane = new JScrollPane(table);
+
+            // Add the scroll pane to the dialog
+            dialog.add(scrollPane, BorderLayout.CENTER);
+
+            // Set dialog size and visibility
+            dialog.setSize(650, 400);
+            dialog.setLocationRelativeTo(this);
+            dialog.setVisible(true);
+        });
+    }
+
+    /**
+     * Method to navigate to the search page: words typed there are looked up in the
+     * library's title and author index, and the best matches are listed.
+     */
+    private void navigateToSearchPage() {
+        JDialog dialog = new JDialog(this, "Search Books", true);
         dialog.setLayout(new BorderLayout());
 
-        // Create a text area to display the database contents
-        JTextArea textArea = new JTextArea(20, 40);
-        textArea.setEditable(false); // Make the text area read-only
-
-        // Retrieve the database contents from the library and format them with labels
-        StringBuilder databaseContent = new StringBuilder();
-        for (Book book : library.getBooks()) {
-            databaseContent.append("Book ID: ").append(book.getId()).append(", ")
-                    .append("Title: ").append(book.getTitle()).append(", ")
-                    .append("Author: ").append(book.getAuthor()).append(", ")
-                    .append("Barcode: ").append(book.getBarcode()).append("\n");
-        }
-        textArea.setText(databaseContent.toString());
+        JPanel queryPanel = new JPanel(new BorderLayout(5, 0));
+        queryPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        JTextField queryField = new JTextField();
+        JButton findButton = new JButton("Search");
+        queryPanel.add(new JLabel("Title or author:"), BorderLayout.WEST);
+        queryPanel.add(queryField, BorderLayout.CENTER);
+        queryPanel.add(findButton, BorderLayout.EAST);
+        dialog.add(queryPanel, BorderLayout.NORTH);
+
+        LibraryTableModel results = new LibraryTableModel(new ArrayList<>());
+        JTable table = new JTable(results);
+        table.setFillsViewportHeight(true);
+        dialog.add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JLabel statusLabel = new JLabel(" ");
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+        dialog.add(statusLabel, BorderLayout.SOUTH);
+
+        ActionListener search = event -> {
+            String query = queryField.getText();
+            runInBackground(operations.searchBooks(query, SEARCH_RESULT_LIMIT), findButton, (found, error) -> {
+                if (error != null) {
+                    JOptionPane.showMessageDialog(dialog, "Error searching books: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                results.setBooks(found);
+                statusLabel.setText(found.isEmpty() ? "No books match \"" + query.trim() + "\""
+                        : found.size() == SEARCH_RESULT_LIMIT ? "Showing the best " + found.size() + " matches"
+                        : found.size() + " matching books");
+            });
+        };
+        findButton.addActionListener(search);
+        queryField.addActionListener(search);
+
+        dialog.setSize(650, 400);
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+    }
 
-        // Add the text area to a scroll pane to enable scrolling
-        JScrollPane scrollPane = new JScrollPane(textArea);
+    /**
+     * Method to navigate to the list of overdue books, earliest due date first.
+     * Only the overdue part of the library's due date index is read.
+     */
+    private void navigateToOverduePage(JButton overdueButton) {
+        runInBackground(operations.findOverdueBooks(LocalDate.now()), overdueButton, (overdue, error) -> {
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Error reading overdue books: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            } else {
+                showBookList("Overdue Books (" + overdue.size() + ")", overdue);
+            }
+        });
+    }
 
-        // Add the scroll pane to the dialog
-        dialog.add(scrollPane, BorderLayout.CENTER);
+    /**
+     * Method to navigate to the list of books due in the next days, earliest due date first.
+     * The user enters how many days ahead to look.
+     */
+    private void navigateToDueSoonPage(JButton dueSoonButton) {
+        String input = JOptionPane.showInputDialog(this, "Show books due within how many days?", "7");
+        if (input == null) {
+            return;
+        }
+        int days;
+        try {
+            days = Integer.parseInt(input.trim());
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this, "Please enter a number of days.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (days < 0) {
+            JOptionPane.showMessageDialog(this, "Please enter 0 or more days.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        runInBackground(operations.findBooksDueWithin(LocalDate.now(), days), dueSoonButton, (dueSoon, error) -> {
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Error reading due dates: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            } else {
+                showBookList("Books Due Within " + days + " Days (" + dueSoon.size() + ")", dueSoon);
+            }
+        });
+    }
 
-        // Set dialog size and visibility
-        dialog.setSize(500, 400);
+    /**
+     * Method to show a list of books in a read-only table dialog.
+     */
+    private void showBookList(String title, List<Book> books) {
+        JDialog dialog = new JDialog(this, title, true);
+        dialog.setLayout(new BorderLayout());
+        JTable table = new JTable(new LibraryTableModel(books));
+        table.setFillsViewportHeight(true);
+        dialog.add(new JScrollPane(table), BorderLayout.CENTER);
+        dialog.setSize(650, 400);
         dialog.setLocationRelativeTo(this);
         dialog.setVisible(true);
     }
 
     /**
-     * Method to format book information from a Book object according to the desired format
-     * This method uses the getters from the Book class to retrieve book information.
+     * Method to run a library operation in the background: the window shows a busy cursor and
+     * the button that started it is disabled until it finishes, then the result (or the error
+     * that stopped it) is handed to whenDone on the Swing thread.
      */
-    private String formatBookInfo(Book book) {
-        return String.format("%d,%s,%s,%s", book.getId(), book.getTitle(), book.getAuthor(), book.getBarcode());
+    private <T> void runInBackground(CompletableFuture<T> operation, JComponent trigger, BiConsumer<T, Throwable> whenDone) {
+        Window window = trigger == null ? this : SwingUtilities.getWindowAncestor(trigger);
+        if (trigger != null) {
+            trigger.setEnabled(false);
+        }
+        window.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        operation.whenCompleteAsync((result, error) -> {
+            if (trigger != null) {
+                trigger.setEnabled(true);
+            }
+            window.setCursor(Cursor.getDefaultCursor());
+            whenDone.accept(result, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+        }, SwingUtilities::invokeLater);
     }
+
     /**
      * Method to confirm exit of the LMS application
      */
-    private void confirmExit() {
+    private void confirmExit(JButton exitButton) {
         int choice = JOptionPane.showConfirmDialog(this, "Are you sure you want to exit?", "Confirm Exit", JOptionPane.YES_NO_OPTION);
         if (choice == JOptionPane.YES_OPTION) {
-            System.exit(0);
+            // Let queued changes finish and fold the journal into books.txt before exiting
+            runInBackground(operations.shutdown(), exitButton, (ignored, error) -> System.exit(0));
         }
     }
     public static void main(String[] args) {
-        MainFrame frame = new MainFrame();
+        Metrics.startFileDumpIfConfigured();
+        // books.txt unless another store is picked with -Dlibrary.store=sqlite|memory
+        Library library;
+        try {
+            library = new Library(CatalogStore.forSystemProperties("books.txt"));
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(null, "Could not open the catalog: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        MainFrame frame = new MainFrame(library);
         frame.setVisible(true);
     }
 }
@@ -0,0 +1,180 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import catalog.Book;
+import catalog.Library;
+import catalog.LibraryOperations;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: OverdueNoticeJob
+ * Description: Nightly batch job that writes an overdue notice for every checked out book
+ * whose due date has passed since the previous run. A watermark file remembers the first
+ * due date not yet processed, so each run reads only the newly overdue part of Library's
+ * due date index: its cost grows with the number of new notices, not with the catalog.
+ *
+ * Notices are appended to an outbox file, one line per book:
+ *     runDate,bookId,barcode,dueDate,daysOverdue,title
+ * Books are processed one due date at a time and committed in batches: the batch is written
+ * and forced to disk, then the watermark (next due date and outbox length) is replaced
+ * atomically. After a crash the next run cuts the outbox back to the recorded length and
+ * starts again from the watermark, so no notice is lost or written twice.
+ */
+public class OverdueNoticeJob {
+    private final Path outbox;
+    private final Path watermarkFile;
+    private final int batchSize;
+
+    /**
+     * Constructor for the OverdueNoticeJob class.
+     * @param outbox The file notices are appended to.
+     * @param watermarkFile The file the job's progress is kept in.
+     * @param batchSize Roughly how many notices to write per commit; a due date is never split.
+     */
+    public OverdueNoticeJob(Path outbox, Path watermarkFile, int batchSize) {
+        this.outbox = outbox;
+        this.watermarkFile = watermarkFile;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Method to write notices for the books that became overdue since the last run.
+     * Call it on the thread that owns the library (see scheduleDaily).
+     * @param library The library to read due dates from.
+     * @param today The run date; books due before it are overdue.
+     * @return The number of notices written.
+     * @throws IOException If the outbox or watermark cannot be written; completed batches are kept.
+     */
+    public int run(Library library, LocalDate today) throws IOException {
+        Watermark watermark = readWatermark();
+        int written = 0;
+        try (FileChannel channel = FileChannel.open(outbox, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Drop anything written after the last commit (a batch interrupted by a crash)
+            if (channel.size() > watermark.outboxLength) {
+                channel.truncate(watermark.outboxLength);
+            }
+            channel.position(watermark.outboxLength);
+
+            StringBuilder batch = new StringBuilder();
+            int batchCount = 0;
+            LocalDate dueDate = library.findNextDueDate(watermark.nextDueDate);
+            while (dueDate != null && dueDate.isBefore(today)) {
+                for (Book book : library.findBooksDueOn(dueDate)) {
+                    appendNotice(batch, today, book);
+                    batchCount++;
+                }
+                LocalDate next = dueDate.plusDays(1);
+                if (batchCount >= batchSize) {
+                    watermark = commit(channel, batch, next);
+                    written += batchCount;
+                    batch.setLength(0);
+                    batchCount = 0;
+                }
+                dueDate = library.findNextDueDate(next);
+            }
+            // Everything due before today is done, including days without books;
+            // the watermark never moves back if the clock does
+            LocalDate end = watermark.nextDueDate != null && watermark.nextDueDate.isAfter(today) ? watermark.nextDueDate : today;
+            commit(channel, batch, end);
+            written += batchCount;
+        }
+        return written;
+    }
+
+    /**
+     * Method to run the job every day at a fixed time on the library's operations thread.
+     * @param operations The operations the library is confined to.
+     * @param runAt The local time of day to run.
+     * @param scheduler The scheduler that triggers the runs.
+     * @return The scheduled task, to cancel it.
+     */
+    public ScheduledFuture<?> scheduleDaily(LibraryOperations operations, LocalTime runAt, ScheduledExecutorService scheduler) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime firstRun = now.toLocalDate().atTime(runAt);
+        if (!firstRun.isAfter(now)) {
+            firstRun = firstRun.plusDays(1);
+        }
+        long delayMillis = Duration.between(now, firstRun).toMillis();
+        return scheduler.scheduleAtFixedRate(() -> operations.submit(library -> {
+            try {
+                int notices = run(library, LocalDate.now());
+                System.out.println("Overdue notices written: " + notices);
+            } catch (IOException e) {
+                System.out.println("Error writing overdue notices: " + e.getMessage());
+            }
+            return null;
+        }), delayMillis, TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    private static void appendNotice(StringBuilder batch, LocalDate today, Book book) {
+        batch.append(today).append(',')
+                .append(book.getId()).append(',')
+                .append(book.getBarcode()).append(',')
+                .append(book.getDueDate()).append(',')
+                .append(ChronoUnit.DAYS.between(book.getDueDate(), today)).append(',')
+                .append(book.getTitle()).append('\n');
+    }
+
+    // Writes the batch, forces it to disk, then moves the watermark past it
+    private Watermark commit(FileChannel channel, StringBuilder batch, LocalDate nextDueDate) throws IOException {
+        if (batch.length() > 0) {
+            ByteBuffer bytes = StandardCharsets.UTF_8.encode(batch.toString());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(true);
+        }
+        Watermark watermark = new Watermark(nextDueDate, channel.position());
+        writeWatermark(watermark);
+        return watermark;
+    }
+
+    // Progress record: every book due before nextDueDate has a notice in the first outboxLength bytes
+    private static class Watermark {
+        final LocalDate nextDueDate; // null before the first run
+        final long outboxLength;
+
+        Watermark(LocalDate nextDueDate, long outboxLength) {
+            this.nextDueDate = nextDueDate;
+            this.outboxLength = outboxLength;
+        }
+    }
+
+    private Watermark readWatermark() throws IOException {
+        if (!Files.exists(watermarkFile)) {
+            return new Watermark(null, 0);
+        }
+        String line = Files.readString(watermarkFile, StandardCharsets.UTF_8).trim();
+        String[] fields = line.split(",");
+        try {
+            return new Watermark(LocalDate.parse(fields[0]), Long.parseLong(fields[1]));
+        } catch (ArrayIndexOutOfBoundsException | DateTimeParseException | NumberFormatException e) {
+            throw new IOException("Invalid overdue notice watermark '" + line + "' in " + watermarkFile, e);
+        }
+    }
+
+    private void writeWatermark(Watermark watermark) throws IOException {
+        Path temp = watermarkFile.resolveSibling(watermarkFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(StandardCharsets.UTF_8.encode(watermark.nextDueDate + "," + watermark.outboxLength + "\n"));
+            channel.force(true);
+        }
+        Files.move(temp, watermarkFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
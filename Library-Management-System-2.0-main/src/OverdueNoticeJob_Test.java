@@ -0,0 +1,86 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import catalog.Book;
+import catalog.Library;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: OverdueNoticeJobTest
+ * Description: Checks that OverdueNoticeJob only writes notices for newly overdue books,
+ * never writes one twice, and recovers from a batch torn by a crash.
+ */
+class OverdueNoticeJobTest {
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 1);
+
+    private Path directory;
+    private Path outbox;
+    private Path watermark;
+    private Library library;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("overdue-notices");
+        outbox = directory.resolve("notices.outbox");
+        watermark = directory.resolve("notices.watermark");
+        Files.createFile(directory.resolve("books.txt"));
+        library = new Library(directory.resolve("books.txt").toString());
+        for (int i = 0; i < 10; i++) {
+            // Due dates from 6 days overdue to 3 days ahead
+            LocalDate due = TODAY.minusDays(6 - i);
+            library.addBook(new Book(i, "Title " + i, "Author", String.valueOf(1000 + i), false, due, due.minusWeeks(4)));
+        }
+        library.addBook(new Book(99, "On the shelf", "Author", "1099", true, null, null));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void testOnlyNewlyOverdueBooksGetNotices() throws IOException {
+        OverdueNoticeJob job = new OverdueNoticeJob(outbox, watermark, 2);
+
+        // Books 0-5 are due before today
+        assertEquals(6, job.run(library, TODAY));
+        List<String> notices = Files.readAllLines(outbox);
+        assertEquals(6, notices.size());
+        assertEquals("2024-06-01,0,1000,2024-05-26,6,Title 0", notices.get(0));
+
+        // A second run the same day has nothing new; the next day only book 6 crossed
+        assertEquals(0, job.run(library, TODAY));
+        assertEquals(1, job.run(library, TODAY.plusDays(1)));
+        assertEquals(7, Files.readAllLines(outbox).size());
+    }
+
+    @Test
+    void testTornBatchIsRewrittenOnce() throws IOException {
+        OverdueNoticeJob job = new OverdueNoticeJob(outbox, watermark, 100);
+        assertEquals(6, job.run(library, TODAY));
+
+        // A crash after writing part of the next batch but before moving the watermark
+        Files.writeString(outbox, "2024-06-03,6,1006,2024-06", StandardOpenOption.APPEND);
+
+        assertEquals(2, job.run(library, TODAY.plusDays(2)));
+        List<String> notices = Files.readAllLines(outbox);
+        assertEquals(8, notices.size());
+        assertEquals("2024-06-03,6,1006,2024-06-01,2,Title 6", notices.get(6));
+    }
+}
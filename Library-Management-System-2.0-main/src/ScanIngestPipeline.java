@@ -0,0 +1,290 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import catalog.LibraryOperations;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: ScanIngestPipeline
+ * Description: Takes barcode scans from any number of scanner stations and applies them to
+ * the library in batches, so unloading the book drop does not cost a file write per scan.
+ * Scans go into a bounded queue; one writer thread takes the first waiting scan, collects
+ * whatever else arrives within the batching window, drops repeated scans of the same barcode
+ * and applies the batch through LibraryOperations inside one Library batch, so it is saved
+ * once (one file write, or one journal write and sync). While the writer is busy the queue
+ * fills up and scan() waits (offer() gives up after a timeout): that is the backpressure
+ * that keeps a burst from outrunning the disk. A batch that fails is logged and the writer
+ * goes on with the next one; if the library's operations have been shut down, the pipeline
+ * closes itself and drops the queued scans, since none of them can be applied.
+ */
+public class ScanIngestPipeline implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final long DEFAULT_WINDOW_MILLIS = 50;
+    public static final int DEFAULT_MAX_BATCH = 1024;
+
+    /**
+     * What a scan does to the copy.
+     */
+    public enum Action {
+        CHECK_IN,
+        CHECK_OUT
+    }
+
+    /**
+     * Receives the outcome of each batch, on the writer thread.
+     */
+    public interface BatchListener {
+        void batchApplied(BatchResult result);
+    }
+
+    /**
+     * Outcome of one applied batch.
+     */
+    public static final class BatchResult {
+        private final int scans;
+        private final int duplicates;
+        private final int applied;
+        private final List<String> rejected;
+
+        BatchResult(int scans, int duplicates, int applied, List<String> rejected) {
+            this.scans = scans;
+            this.duplicates = duplicates;
+            this.applied = applied;
+            this.rejected = rejected;
+        }
+
+        public int getScans() {
+            return scans;
+        }
+
+        public int getDuplicates() {
+            return duplicates;
+        }
+
+        public int getApplied() {
+            return applied;
+        }
+
+        /**
+         * Getter method for the scans that changed nothing.
+         * @return Their barcodes: unknown, or the copy was already in the scanned state.
+         */
+        public List<String> getRejected() {
+            return rejected;
+        }
+    }
+
+    private static final class Scan {
+        final String barcode;
+        final Action action;
+
+        Scan(String barcode, Action action) {
+            this.barcode = barcode;
+            this.action = action;
+        }
+    }
+
+    // How often an idle writer looks whether the pipeline was closed
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final LibraryOperations operations;
+    private final BlockingQueue<Scan> queue;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final BatchListener listener;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    /**
+     * Constructor for the ScanIngestPipeline class with the default queue size, window and batch size.
+     * @param operations The library the scans are applied to.
+     * @param listener Receives the outcome of each batch; may be null.
+     */
+    public ScanIngestPipeline(LibraryOperations operations, BatchListener listener) {
+        this(operations, DEFAULT_CAPACITY, DEFAULT_WINDOW_MILLIS, DEFAULT_MAX_BATCH, listener);
+    }
+
+    /**
+     * Constructor for the ScanIngestPipeline class. The writer thread starts right away.
+     * @param operations The library the scans are applied to.
+     * @param capacity How many scans may wait before scan() blocks.
+     * @param windowMillis How long a batch collects scans after its first one.
+     * @param maxBatch The most scans applied in one batch.
+     * @param listener Receives the outcome of each batch; may be null.
+     */
+    public ScanIngestPipeline(LibraryOperations operations, int capacity, long windowMillis, int maxBatch,
+                              BatchListener listener) {
+        this.operations = operations;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxBatch = maxBatch;
+        this.listener = listener;
+        this.writer = new Thread(this::runWriter, "scan-ingest");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Method to queue a scan, waiting while the queue is full.
+     * @param barcode The barcode scanned.
+     * @param action What the scan does.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public void scan(String barcode, Action action) throws InterruptedException {
+        checkOpen();
+        queue.put(new Scan(barcode, action));
+    }
+
+    /**
+     * Method to queue a scan, waiting at most the timeout while the queue is full.
+     * @param barcode The barcode scanned.
+     * @param action What the scan does.
+     * @param timeout How long to wait for room.
+     * @param unit The unit of the timeout.
+     * @return true if the scan was queued, false if the queue stayed full.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public boolean offer(String barcode, Action action, long timeout, TimeUnit unit) throws InterruptedException {
+        checkOpen();
+        return queue.offer(new Scan(barcode, action), timeout, unit);
+    }
+
+    /**
+     * Getter method for the number of scans waiting to be applied.
+     * @return The number of queued scans, not counting the batch being applied.
+     */
+    public int getQueuedScans() {
+        return queue.size();
+    }
+
+    /**
+     * Method to stop taking scans, apply every scan already queued and stop the writer.
+     * Scans queued while close() runs may be rejected. If the calling thread is interrupted
+     * while it waits, the writer finishes the queued scans on its own.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        // A scan that was queued just as the writer stopped
+        List<Scan> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            apply(rest);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The scan pipeline is closed");
+        }
+    }
+
+    private void runWriter() {
+        List<Scan> batch = new ArrayList<>(maxBatch);
+        try {
+            while (true) {
+                Scan first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (closed) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatch) {
+                    queue.drainTo(batch, maxBatch - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatch || remaining <= 0 || closed) {
+                        break;
+                    }
+                    Scan next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                apply(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Applies one batch on the library thread and waits for it, so the queue is where scans wait
+    private void apply(List<Scan> batch) {
+        // Repeated scans of a barcode collapse into one; a different action on it is kept, in order
+        Map<String, List<Action>> actionsByBarcode = new LinkedHashMap<>();
+        int duplicates = 0;
+        for (Scan scan : batch) {
+            List<Action> actions = actionsByBarcode.computeIfAbsent(scan.barcode, key -> new ArrayList<>(1));
+            if (!actions.isEmpty() && actions.get(actions.size() - 1) == scan.action) {
+                duplicates++;
+            } else {
+                actions.add(scan.action);
+            }
+        }
+        int scans = batch.size();
+        int repeated = duplicates;
+        try {
+            BatchResult result = operations.submit(library -> {
+                List<String> rejected = new ArrayList<>();
+                boolean saved = false;
+                library.beginBatch();
+                try {
+                    for (Map.Entry<String, List<Action>> entry : actionsByBarcode.entrySet()) {
+                        for (Action action : entry.getValue()) {
+                            boolean changed = action == Action.CHECK_IN
+                                    ? library.checkInByBarcode(entry.getKey())
+                                    : library.checkOutByBarcode(entry.getKey()) != null;
+                            if (!changed) {
+                                rejected.add(entry.getKey());
+                            }
+                        }
+                    }
+                } finally {
+                    saved = library.commitBatch();
+                }
+                if (!saved) {
+                    // The library dropped the whole batch: none of the scans changed anything
+                    rejected.clear();
+                    for (Map.Entry<String, List<Action>> entry : actionsByBarcode.entrySet()) {
+                        for (int i = 0; i < entry.getValue().size(); i++) {
+                            rejected.add(entry.getKey());
+                        }
+                    }
+                }
+                return new BatchResult(scans, repeated, scans - repeated - rejected.size(), rejected);
+            }).join();
+            if (listener != null) {
+                listener.batchApplied(result);
+            }
+        } catch (RejectedExecutionException e) {
+            // The library thread is gone, so no later batch can be applied either
+            closed = true;
+            int dropped = queue.size();
+            queue.clear();
+            System.out.println("Error applying scans, closing the scan pipeline and dropping " + dropped
+                    + " queued scans: " + e.getMessage());
+        } catch (CompletionException e) {
+            System.out.println("Error applying scans: " + e.getCause());
+        } catch (RuntimeException e) {
+            // E.g. thrown by the listener; the batch was applied and the writer keeps going
+            System.out.println("Error applying scans: " + e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import catalog.Book;
+import catalog.Library;
+import catalog.LibraryOperations;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that scans are coalesced, applied in batches and held back when the queue is full,
+ * and that a failed batch does not stop the writer.
+ */
+class ScanIngestPipelineTest {
+    private static final int BOOKS = 20;
+
+    private Path directory;
+    private Path file;
+    private LibraryOperations operations;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("scan-ingest");
+        file = directory.resolve("books.txt");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            lines.add(new Book(i, "Title " + i, "Author", String.valueOf(70000 + i), false, null, null).toFileString());
+        }
+        Files.write(file, lines);
+        operations = new LibraryOperations(new Library(file.toString()));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        operations.shutdown().join();
+        try (var files = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    @DisplayName("Repeated scans are coalesced and each batch is saved once")
+    void testCoalescedBatch() throws Exception {
+        List<ScanIngestPipeline.BatchResult> results = new CopyOnWriteArrayList<>();
+        // A long window so every scan below lands in one batch
+        ScanIngestPipeline pipeline = new ScanIngestPipeline(operations, 100, 2_000, 100, results::add);
+        for (int i = 0; i < BOOKS; i++) {
+            pipeline.scan(String.valueOf(70000 + i), ScanIngestPipeline.Action.CHECK_IN);
+            pipeline.scan(String.valueOf(70000 + i), ScanIngestPipeline.Action.CHECK_IN); // double read
+        }
+        pipeline.scan("70000", ScanIngestPipeline.Action.CHECK_OUT);
+        pipeline.scan("99999", ScanIngestPipeline.Action.CHECK_IN);
+        pipeline.close();
+
+        assertEquals(1, results.size());
+        ScanIngestPipeline.BatchResult result = results.get(0);
+        assertEquals(2 * BOOKS + 2, result.getScans());
+        assertEquals(BOOKS, result.getDuplicates());
+        assertEquals(BOOKS + 1, result.getApplied());
+        assertEquals(List.of("99999"), result.getRejected());
+
+        // The saved file has every book back on the shelf except the one checked out again
+        List<String> saved = Files.readAllLines(file);
+        assertEquals(BOOKS - 1, saved.stream().filter(line -> line.contains(",true,")).count());
+        assertTrue(operations.submit(library -> library.findBookByBarcode("70000").getDueDate() != null).join());
+    }
+
+    @Test
+    @DisplayName("A full queue holds scans back until the writer catches up")
+    void testBackpressure() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ScanIngestPipeline pipeline = new ScanIngestPipeline(operations, 2, 0, 1, null);
+        // Keep the library thread busy so the writer waits on its first batch
+        operations.submit(library -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+
+        assertTrue(pipeline.offer("70001", ScanIngestPipeline.Action.CHECK_IN, 1, TimeUnit.SECONDS));
+        // Wait until the writer has taken the first scan, then fill the queue
+        while (pipeline.getQueuedScans() > 0) {
+            Thread.sleep(1);
+        }
+        assertTrue(pipeline.offer("70002", ScanIngestPipeline.Action.CHECK_IN, 1, TimeUnit.SECONDS));
+        assertTrue(pipeline.offer("70003", ScanIngestPipeline.Action.CHECK_IN, 1, TimeUnit.SECONDS));
+        assertFalse(pipeline.offer("70004", ScanIngestPipeline.Action.CHECK_IN, 50, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        pipeline.close();
+        assertEquals(3, operations.submit(library -> library.getBooks().stream().filter(Book::isAvailable).count()).join());
+        assertThrows(IllegalStateException.class, () -> pipeline.scan("70005", ScanIngestPipeline.Action.CHECK_IN));
+    }
+
+    @Test
+    @DisplayName("A failing batch is logged and later ones still apply; a shut down library closes the pipeline")
+    void testFailedBatches() throws Exception {
+        LibraryOperations separate = new LibraryOperations(new Library(file.toString()));
+        List<ScanIngestPipeline.BatchResult> results = new CopyOnWriteArrayList<>();
+        ScanIngestPipeline pipeline = new ScanIngestPipeline(separate, 16, 0, 1, result -> {
+            results.add(result);
+            if (results.size() == 1) {
+                throw new IllegalStateException("listener failed");
+            }
+        });
+        pipeline.scan("70001", ScanIngestPipeline.Action.CHECK_IN);
+        pipeline.scan("70002", ScanIngestPipeline.Action.CHECK_IN);
+        while (results.size() < 2) {
+            Thread.sleep(1);
+        }
+
+        separate.shutdown().join();
+        pipeline.scan("70003", ScanIngestPipeline.Action.CHECK_IN);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        boolean closed = false;
+        while (!closed && System.nanoTime() < deadline) {
+            try {
+                pipeline.scan("70004", ScanIngestPipeline.Action.CHECK_IN);
+                Thread.sleep(1);
+            } catch (IllegalStateException e) {
+                closed = true;
+            }
+        }
+        assertTrue(closed);
+        pipeline.close();
+        assertEquals(2, results.size());
+    }
+}
@@ -1,3 +1,5 @@
+package catalog;
+
 import java.time.LocalDate;
 
 /**
@@ -14,7 +16,7 @@ public class Book {
     private final String title;
     private final String author;
     private final String barcode;
-    private boolean available;
+    private volatile boolean available; // volatile so ConcurrentLibrary readers see checkouts without locking
     private LocalDate dueDate;
     private LocalDate checkoutDate;
 
@@ -73,11 +75,13 @@ public class Book {
      * @return The book data as a formatted string.
      */
     public String toFileString() {
-        return id + "," + title + "," + author + "," + barcode + "," + available + "," + (dueDate != null ? dueDate.toString() : "null");
+        // Uses the getters so views over other storage (see BookColumnStore) format the same way
+        LocalDate dueDate = getDueDate();
+        return getId() + "," + getTitle() + "," + getAuthor() + "," + getBarcode() + "," + isAvailable() + "," + (dueDate != null ? dueDate.toString() : "null");
     }
 
     @Override
     public String toString() {
-        return "Book [Book ID: " + id + ", Barcode Number: " + barcode + ", Title: " + title + ", Author: " + author + "]";
+        return "Book [Book ID: " + getId() + ", Barcode Number: " + getBarcode() + ", Title: " + getTitle() + ", Author: " + getAuthor() + "]";
     }
 }
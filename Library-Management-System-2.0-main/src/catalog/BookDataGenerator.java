@@ -0,0 +1,101 @@
+package catalog;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: BookDataGenerator
+ * Description: Generates reproducible synthetic catalogs for benchmarks.
+ * The same seed always yields the same books, so runs can be compared.
+ */
+public class BookDataGenerator {
+    public static final long DEFAULT_SEED = 20240324L;
+
+    // Fixed reference date so generated due dates do not depend on when the generator runs
+    private static final LocalDate BASE_DATE = LocalDate.of(2024, 4, 1);
+
+    private static final String[] FIRST_NAMES = {
+            "Jane", "George", "Harper", "Suzanne", "Beatrix", "Veronica", "Scott", "Mary", "Leo", "Toni",
+            "Gabriel", "Chinua", "Virginia", "Ernest", "Isabel", "Haruki", "Octavia", "Kazuo", "Zadie", "Ray",
+            "Ursula", "Albert", "Agatha", "Fyodor", "Louisa", "Herman", "Emily", "Charles", "Sylvia", "Jorge"
+    };
+    private static final String[] LAST_NAMES = {
+            "Austen", "Orwell", "Lee", "Collins", "Potter", "Roth", "Fitzgerald", "Shelley", "Tolstoy", "Morrison",
+            "Marquez", "Achebe", "Woolf", "Hemingway", "Allende", "Murakami", "Butler", "Ishiguro", "Smith", "Bradbury",
+            "Le Guin", "Camus", "Christie", "Dostoevsky", "Alcott", "Melville", "Bronte", "Dickens", "Plath", "Borges"
+    };
+    private static final String[] TITLE_WORDS = {
+            "The", "Secret", "Garden", "River", "Night", "House", "Winter", "Shadow", "Light", "Road",
+            "Ocean", "Stone", "Silent", "Last", "Lost", "City", "Song", "Fire", "Glass", "Mountain",
+            "Letters", "Kingdom", "Forest", "Storm", "Island", "Memory", "Summer", "Crown", "Thief", "Bridge",
+            "Hunger", "Games", "Pride", "Prejudice", "Rye", "Mockingbird", "Tale", "Rabbit", "Wind", "Star"
+    };
+
+    private final Random random;
+    private int nextId = 1;
+
+    /**
+     * Constructor for the BookDataGenerator class.
+     * @param seed Seed for the random source; equal seeds produce equal catalogs.
+     */
+    public BookDataGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Method to generate the next book. IDs are sequential and barcodes unique.
+     * About 15% of books are checked out with a due date near the base date.
+     * @return A new synthetic book.
+     */
+    public Book nextBook() {
+        int id = nextId++;
+        StringBuilder title = new StringBuilder(TITLE_WORDS[random.nextInt(TITLE_WORDS.length)]);
+        int words = 1 + random.nextInt(4);
+        for (int i = 0; i < words; i++) {
+            title.append(' ').append(TITLE_WORDS[random.nextInt(TITLE_WORDS.length)]);
+        }
+        String author = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        String barcode = String.valueOf(10_000_000L + id);
+        boolean available = random.nextInt(100) >= 15;
+        LocalDate dueDate = available ? null : BASE_DATE.plusDays(random.nextInt(59) - 30);
+        LocalDate checkoutDate = available ? null : dueDate.minusWeeks(4);
+        return new Book(id, title.toString(), author, barcode, available, dueDate, checkoutDate);
+    }
+
+    /**
+     * Method to generate a list of books.
+     * @param count Number of books to generate.
+     * @return The generated books.
+     */
+    public List<Book> generate(int count) {
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            books.add(nextBook());
+        }
+        return books;
+    }
+
+    /**
+     * Method to write a generated catalog in the books file format.
+     * @param path The file to write.
+     * @param count Number of books to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeFile(Path path, int count) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, Charset.defaultCharset())) {
+            for (int i = 0; i < count; i++) {
+                writer.write(nextBook().toFileString());
+                writer.newLine();
+            }
+        }
+    }
+}
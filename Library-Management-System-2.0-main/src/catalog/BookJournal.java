@@ -0,0 +1,188 @@
+package catalog;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: BookJournal
+ * Description: Append-only log of library mutations. Each add, remove,
+ * checkout and checkin is written as one line so a change costs one small
+ * write instead of a rewrite of the whole books file.
+ * Copies of a title can share an ID and barcode, so remove, checkout and checkin
+ * records also carry dates that let replay find the copy that changed.
+ */
+public class BookJournal implements Closeable {
+    // Record types, written as the first field of every journal line
+    public static final String ADD = "ADD";
+    public static final String REMOVE = "REMOVE";
+    public static final String CHECKOUT = "CHECKOUT";
+    public static final String CHECKIN = "CHECKIN";
+
+    private final Path path;
+    private final int syncEvery;
+    private FileChannel channel;
+    private int unsyncedRecords;
+
+    /**
+     * Constructor for the BookJournal class.
+     * @param path The journal file, created if it does not exist.
+     * @param syncEvery Number of records per fsync (group commit); 0 leaves syncing to the OS.
+     * @throws IOException If the journal cannot be opened.
+     */
+    public BookJournal(Path path, int syncEvery) throws IOException {
+        this.path = path;
+        this.syncEvery = syncEvery;
+        this.channel = open(path);
+    }
+
+    /**
+     * Method to append one record to the journal.
+     * @param type The record type (ADD, REMOVE, CHECKOUT or CHECKIN).
+     * @param payload The comma-separated record body.
+     * @throws IOException If the record cannot be written.
+     */
+    public synchronized void append(String type, String payload) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap((type + "," + payload + "\n").getBytes(Charset.defaultCharset()));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (syncEvery > 0 && ++unsyncedRecords >= syncEvery) {
+            sync();
+        }
+    }
+
+    /**
+     * Method to append many records with one write, then sync once if syncing is on.
+     * @param records The records, each in the form "type,payload".
+     * @throws IOException If the records cannot be written.
+     */
+    public synchronized void appendAll(List<String> records) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (String record : records) {
+            lines.append(record).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(Charset.defaultCharset()));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (syncEvery > 0 && !records.isEmpty()) {
+            sync();
+        }
+    }
+
+    /**
+     * Method to build the body of a REMOVE, CHECKOUT or CHECKIN record: "id,barcode,checkout,due".
+     * A checkout record carries the dates the copy now has; a checkin or remove record carries
+     * the dates it had before, so replay picks a copy in that state ("null" for no date).
+     * @param book The copy.
+     * @param checkoutDate The checkout date to record.
+     * @param dueDate The due date to record.
+     * @return The record body.
+     */
+    public static String copyPayload(Book book, LocalDate checkoutDate, LocalDate dueDate) {
+        return book.getId() + "," + book.getBarcode() + "," + checkoutDate + "," + dueDate;
+    }
+
+    /**
+     * Method to force all appended records to disk.
+     * @throws IOException If the journal cannot be synced.
+     */
+    public synchronized void sync() throws IOException {
+        channel.force(false);
+        unsyncedRecords = 0;
+    }
+
+    /**
+     * Method to get the current size of the journal.
+     * @return The journal size in bytes.
+     * @throws IOException If the size cannot be read.
+     */
+    public synchronized long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Method to move the current records aside so a snapshot can absorb them.
+     * If an earlier rotated journal is still waiting to be compacted, the current
+     * records are appended to it so no record is ever dropped.
+     * @param rotatedPath Where the rotated records are kept until the snapshot is written.
+     * @throws IOException If the journal cannot be rotated.
+     */
+    public synchronized void rotate(Path rotatedPath) throws IOException {
+        sync();
+        if (Files.exists(rotatedPath)) {
+            try (FileChannel rotated = open(rotatedPath)) {
+                long position = 0;
+                long size = channel.size();
+                while (position < size) {
+                    position += channel.transferTo(position, size - position, rotated);
+                }
+                rotated.force(false);
+            }
+            channel.truncate(0);
+            channel.force(false);
+        } else {
+            channel.close();
+            Files.move(path, rotatedPath, StandardCopyOption.ATOMIC_MOVE);
+            channel = open(path);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        sync();
+        channel.close();
+    }
+
+    /**
+     * Method to read back every complete record in a journal file.
+     * A trailing line without a newline (a write torn by a crash) is ignored.
+     * @param journalPath The journal file to replay.
+     * @param handler Receives each record line in the order it was written.
+     * @return The number of records replayed.
+     * @throws IOException If the journal cannot be read.
+     */
+    public static int replay(Path journalPath, Consumer<String> handler) throws IOException {
+        if (!Files.exists(journalPath)) {
+            return 0;
+        }
+        int records = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(journalPath))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b == '\n') {
+                    handler.accept(line.toString(Charset.defaultCharset()));
+                    line.reset();
+                    records++;
+                } else {
+                    line.write(b);
+                }
+            }
+        }
+        return records;
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        // Opened read/write (APPEND cannot be combined with READ) and positioned at the end
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return channel;
+    }
+}
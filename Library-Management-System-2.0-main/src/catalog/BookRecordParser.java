@@ -0,0 +1,193 @@
+package catalog;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: BookRecordParser
+ * Description: Parses single lines of the Book.toFileString() format straight
+ * from bytes. The ID, availability flag and due date are read without creating
+ * substrings, and repeated author names share one String instance.
+ * A parser keeps scratch state and is meant to be used by one thread at a time.
+ */
+public class BookRecordParser {
+
+    /**
+     * Receives lines that could not be parsed, with their 1-based line number.
+     */
+    public interface MalformedLineHandler {
+        void malformedLine(long lineNumber, String reason);
+    }
+
+    private static final int FIELD_COUNT = 6;
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+    private final Charset charset = Charset.defaultCharset();
+    private final MalformedLineHandler handler;
+    private final StringPool authors = new StringPool();
+    private final int[] fieldStart = new int[FIELD_COUNT];
+    private final int[] fieldEnd = new int[FIELD_COUNT];
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Constructor for the BookRecordParser class.
+     * @param handler Receives malformed lines; may be null to ignore them.
+     */
+    public BookRecordParser(MalformedLineHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Method to parse one line.
+     * @param data The buffer holding the line; read with absolute gets so its position is untouched.
+     * @param start Index of the first byte of the line.
+     * @param end Index just past the last byte of the line, excluding the line terminator.
+     * @param lineNumber The line number used in error reports.
+     * @return The parsed book, or null if the line is blank or malformed.
+     */
+    public Book parseLine(ByteBuffer data, int start, int end, long lineNumber) {
+        if (end > start && data.get(end - 1) == '\r') {
+            end--;
+        }
+        if (end == start) {
+            return null; // blank line
+        }
+
+        // Locate the first six comma-separated fields; extra fields are ignored as before
+        int fields = 0;
+        int fieldBegin = start;
+        for (int i = start; i < end && fields < FIELD_COUNT; i++) {
+            if (data.get(i) == ',') {
+                fieldStart[fields] = fieldBegin;
+                fieldEnd[fields] = i;
+                fields++;
+                fieldBegin = i + 1;
+            }
+        }
+        if (fields < FIELD_COUNT) {
+            fieldStart[fields] = fieldBegin;
+            fieldEnd[fields] = end;
+            fields++;
+        }
+        if (fields < FIELD_COUNT) {
+            return malformed(lineNumber, "expected " + FIELD_COUNT + " fields but found " + fields);
+        }
+
+        long id = parseInt(data, fieldStart[0], fieldEnd[0]);
+        if (id == Long.MIN_VALUE) {
+            return malformed(lineNumber, "invalid book ID");
+        }
+        boolean available = equalsIgnoreCase(data, fieldStart[4], fieldEnd[4], TRUE);
+
+        // Available books carry no due date, so the date is only parsed for checked out rows
+        LocalDate dueDate = null;
+        if (!available && !equalsIgnoreCase(data, fieldStart[5], fieldEnd[5], NULL)) {
+            dueDate = parseDate(data, fieldStart[5], fieldEnd[5]);
+            if (dueDate == null) {
+                return malformed(lineNumber, "invalid due date");
+            }
+        }
+
+        String title = decode(data, fieldStart[1], fieldEnd[1]);
+        String author = authors.get(authors.intern(copy(data, fieldStart[2], fieldEnd[2]),
+                fieldEnd[2] - fieldStart[2], charset));
+        String barcode = decode(data, fieldStart[3], fieldEnd[3]);
+        return new Book((int) id, title, author, barcode, available, dueDate, null);
+    }
+
+    private Book malformed(long lineNumber, String reason) {
+        if (handler != null) {
+            handler.malformedLine(lineNumber, reason);
+        }
+        return null;
+    }
+
+    /**
+     * Method to parse a signed int field; returns Long.MIN_VALUE when it is not a valid int.
+     */
+    private static long parseInt(ByteBuffer data, int start, int end) {
+        boolean negative = start < end && data.get(start) == '-';
+        int i = negative ? start + 1 : start;
+        if (i == end) {
+            return Long.MIN_VALUE;
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = data.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE + 1L) {
+                return Long.MIN_VALUE;
+            }
+        }
+        value = negative ? -value : value;
+        return value > Integer.MAX_VALUE ? Long.MIN_VALUE : value;
+    }
+
+    /**
+     * Method to parse a yyyy-MM-dd date; returns null when the field is not a valid date.
+     */
+    private static LocalDate parseDate(ByteBuffer data, int start, int end) {
+        if (end - start != 10 || data.get(start + 4) != '-' || data.get(start + 7) != '-') {
+            return null;
+        }
+        int year = digits(data, start, 4);
+        int month = digits(data, start + 5, 2);
+        int day = digits(data, start + 8, 2);
+        if (year < 0 || month < 0 || day < 0) {
+            return null;
+        }
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static int digits(ByteBuffer data, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = data.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static boolean equalsIgnoreCase(ByteBuffer data, int start, int end, byte[] lowerCaseWord) {
+        if (end - start != lowerCaseWord.length) {
+            return false;
+        }
+        for (int i = 0; i < lowerCaseWord.length; i++) {
+            if ((data.get(start + i) | 0x20) != lowerCaseWord[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decode(ByteBuffer data, int start, int end) {
+        return new String(copy(data, start, end), 0, end - start, charset);
+    }
+
+    /**
+     * Method to copy a byte range into the reusable scratch array.
+     */
+    private byte[] copy(ByteBuffer data, int start, int end) {
+        int length = end - start;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        data.get(start, scratch, 0, length);
+        return scratch;
+    }
+}
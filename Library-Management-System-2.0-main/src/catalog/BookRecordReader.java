@@ -0,0 +1,128 @@
+package catalog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: BookRecordReader
+ * Description: Streams books out of a file in the Book.toFileString() format.
+ * Bytes are read into one reusable buffer and each line is handed to a
+ * BookRecordParser without building an intermediate String or String[].
+ */
+public class BookRecordReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private final BookRecordParser parser;
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private ByteBuffer view = ByteBuffer.wrap(buffer);
+    private int position;
+    private int limit;
+    private boolean endOfStream;
+    private long lineNumber;
+
+    /**
+     * Constructor for the BookRecordReader class.
+     * @param in The stream to read; closed when the reader is closed.
+     * @param handler Receives malformed lines with their line numbers; may be null.
+     */
+    public BookRecordReader(InputStream in, BookRecordParser.MalformedLineHandler handler) {
+        this.in = in;
+        this.parser = new BookRecordParser(handler);
+    }
+
+    /**
+     * Method to open a reader over a file.
+     * @param fileName The file to read.
+     * @param handler Receives malformed lines with their line numbers; may be null.
+     * @return A reader positioned at the first line.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static BookRecordReader open(String fileName, BookRecordParser.MalformedLineHandler handler) throws IOException {
+        return new BookRecordReader(Files.newInputStream(Path.of(fileName)), handler);
+    }
+
+    /**
+     * Method to read the next valid book, skipping blank and malformed lines.
+     * @return The next book, or null at the end of the file.
+     * @throws IOException If the file cannot be read.
+     */
+    public Book next() throws IOException {
+        while (true) {
+            int newline = indexOfNewline();
+            if (newline < 0) {
+                if (!fill()) {
+                    if (position == limit) {
+                        return null;
+                    }
+                    newline = limit; // last line has no terminator
+                } else {
+                    continue;
+                }
+            }
+            int start = position;
+            position = Math.min(newline + 1, limit);
+            lineNumber++;
+            Book book = parser.parseLine(view, start, newline, lineNumber);
+            if (book != null) {
+                return book;
+            }
+        }
+    }
+
+    /**
+     * Method to get the number of lines consumed so far.
+     * @return The current line number.
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private int indexOfNewline() {
+        for (int i = position; i < limit; i++) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Method to read more bytes, keeping the unfinished line at the front of the buffer.
+     * @return false when the stream is exhausted.
+     */
+    private boolean fill() throws IOException {
+        if (endOfStream) {
+            return false;
+        }
+        int remaining = limit - position;
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+        } else if (remaining == buffer.length) {
+            // A single line longer than the buffer
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            view = ByteBuffer.wrap(buffer);
+        }
+        position = 0;
+        limit = remaining;
+        int read = in.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfStream = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+}
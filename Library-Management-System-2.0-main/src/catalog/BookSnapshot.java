@@ -0,0 +1,296 @@
+package catalog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: BookSnapshot
+ * Description: Binary copy of a books file, kept next to it as "books.txt.snapshot" so
+ * startup does not have to parse the text. The text file stays the import/export format;
+ * the snapshot is only used while its header still matches the text file's size and
+ * modification time, so editing books.txt by hand simply makes it stale.
+ *
+ * Layout (big-endian):
+ *     header   magic "LMSB", version, text file size, text file mtime (microseconds), book count, string count
+ *     records  one 32-byte record per book: id, title, author, barcode (string references, -1 for null),
+ *              flags (bit 0 = available), due date and checkout date (epoch days), reserved
+ *     order    the record numbers sorted by normalized title (ties in file order), so the
+ *              title index can be filled in key order instead of sorting on every start
+ *     strings  (string count + 1) offsets into the data, then the UTF-8 data; each distinct string once
+ * The file is memory-mapped to read it. Records become Books directly; titles and barcodes
+ * are decoded for the indexes and authors only when first asked for.
+ */
+public final class BookSnapshot {
+    private static final int MAGIC = 0x4C4D5342; // "LMSB"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int RECORD_BYTES = 32;
+    private static final int NO_STRING = -1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int AVAILABLE = 1;
+
+    private final List<Book> books;
+    private final int[] titleOrder;
+
+    private BookSnapshot(List<Book> books, int[] titleOrder) {
+        this.books = books;
+        this.titleOrder = titleOrder;
+    }
+
+    /**
+     * Getter method for the books read from the snapshot.
+     * @return The books in file order.
+     */
+    public List<Book> getBooks() {
+        return books;
+    }
+
+    /**
+     * Getter method for the title order of the books.
+     * @return Positions in getBooks() sorted by Library.normalizeTitle, ties in file order.
+     */
+    public int[] getTitleOrder() {
+        return titleOrder;
+    }
+
+    /**
+     * Method to get the snapshot file that belongs to a books file.
+     * @param textFile The books file.
+     * @return The path of its snapshot.
+     */
+    public static Path pathFor(Path textFile) {
+        return Path.of(textFile + ".snapshot");
+    }
+
+    /**
+     * Method to write the snapshot of a books file. Call it right after the text file was
+     * written from the same books; the snapshot is stamped with the file's current size and
+     * modification time. It is written to a temporary file and moved into place.
+     * @param textFile The books file the books were just saved to.
+     * @param books The books, in file order.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public static void write(Path textFile, List<Book> books) throws IOException {
+        BasicFileAttributes text = Files.readAttributes(textFile, BasicFileAttributes.class);
+
+        // Give each distinct string a reference, in order of first use
+        Map<String, Integer> references = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        ByteBuffer records = ByteBuffer.allocate(books.size() * RECORD_BYTES);
+        for (Book book : books) {
+            LocalDate dueDate = book.getDueDate();
+            LocalDate checkoutDate = book.getCheckoutDate();
+            records.putInt(book.getId())
+                    .putInt(reference(book.getTitle(), references, strings))
+                    .putInt(reference(book.getAuthor(), references, strings))
+                    .putInt(reference(book.getBarcode(), references, strings))
+                    .putInt(book.isAvailable() ? AVAILABLE : 0)
+                    .putInt(dueDate == null ? NO_DATE : (int) dueDate.toEpochDay())
+                    .putInt(checkoutDate == null ? NO_DATE : (int) checkoutDate.toEpochDay())
+                    .putInt(0);
+        }
+        records.flip();
+
+        String[] titleKeys = new String[books.size()];
+        Integer[] positions = new Integer[books.size()];
+        for (int i = 0; i < titleKeys.length; i++) {
+            titleKeys[i] = Library.normalizeTitle(books.get(i).getTitle());
+            positions[i] = i;
+        }
+        Arrays.sort(positions, Comparator.comparing(position -> titleKeys[position])); // stable
+        ByteBuffer order = ByteBuffer.allocate(books.size() * Integer.BYTES);
+        for (Integer position : positions) {
+            order.putInt(position);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putLong(text.size())
+                .putLong(text.lastModifiedTime().to(TimeUnit.MICROSECONDS))
+                .putInt(books.size())
+                .putInt(strings.size());
+        ByteBuffer offsets = ByteBuffer.allocate((strings.size() + 1) * Integer.BYTES);
+        int offset = 0;
+        for (byte[] string : strings) {
+            offsets.putInt(offset);
+            offset += string.length;
+        }
+        offsets.putInt(offset);
+        ByteBuffer data = ByteBuffer.allocate(offset);
+        for (byte[] string : strings) {
+            data.put(string);
+        }
+
+        Path target = pathFor(textFile);
+        Path temp = Path.of(target + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header.flip());
+            writeFully(channel, records);
+            writeFully(channel, order.flip());
+            writeFully(channel, offsets.flip());
+            writeFully(channel, data.flip());
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Method to read the snapshot of a books file, if it is still current.
+     * @param textFile The books file.
+     * @return The snapshot, or null if there is none, it is from another version, or the
+     *         text file has changed since it was written.
+     * @throws IOException If the snapshot exists but cannot be read or is damaged.
+     */
+    public static BookSnapshot readIfCurrent(Path textFile) throws IOException {
+        Path snapshot = pathFor(textFile);
+        BasicFileAttributes text;
+        try {
+            text = Files.readAttributes(textFile, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            // Check the header before mapping anything
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION
+                    || header.getLong() != text.size()
+                    || header.getLong() != text.lastModifiedTime().to(TimeUnit.MICROSECONDS)) {
+                return null;
+            }
+            int count = header.getInt();
+            int stringCount = header.getInt();
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int orderStart = HEADER_BYTES + count * RECORD_BYTES;
+            int offsetsStart = orderStart + count * Integer.BYTES;
+            int dataStart = offsetsStart + (stringCount + 1) * Integer.BYTES;
+            if (count < 0 || stringCount < 0 || dataStart > mapped.capacity()) {
+                throw new IOException("Damaged snapshot " + snapshot);
+            }
+            StringTable strings = new StringTable(mapped, offsetsStart, dataStart, stringCount);
+
+            List<Book> books = new ArrayList<>(count);
+            ByteBuffer records = mapped.slice(HEADER_BYTES, count * RECORD_BYTES);
+            for (int i = 0; i < count; i++) {
+                int id = records.getInt();
+                String title = strings.get(records.getInt());
+                int authorReference = records.getInt();
+                String barcode = strings.get(records.getInt());
+                boolean available = (records.getInt() & AVAILABLE) != 0;
+                LocalDate dueDate = date(records.getInt());
+                LocalDate checkoutDate = date(records.getInt());
+                records.getInt(); // reserved
+                books.add(new SnapshotBook(id, title, barcode, available, dueDate, checkoutDate, strings, authorReference));
+            }
+            int[] titleOrder = new int[count];
+            mapped.slice(orderStart, count * Integer.BYTES).asIntBuffer().get(titleOrder);
+            return new BookSnapshot(books, titleOrder);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Damaged snapshot " + snapshot, e);
+        }
+    }
+
+    private static int reference(String value, Map<String, Integer> references, List<byte[]> strings) {
+        if (value == null) {
+            return NO_STRING;
+        }
+        Integer reference = references.get(value);
+        if (reference == null) {
+            reference = strings.size();
+            references.put(value, reference);
+            strings.add(value.getBytes(StandardCharsets.UTF_8));
+        }
+        return reference;
+    }
+
+    private static LocalDate date(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * String table of a snapshot. The string bytes are copied out of the mapping in one go,
+     * so the mapped file can be replaced while the books live on, and each string is
+     * decoded the first time it is asked for, then shared by every book that uses it.
+     * The compactor thread may decode at the same time as the library thread; Strings are
+     * immutable, so the worst case is decoding one twice.
+     */
+    private static final class StringTable {
+        private final int[] offsets;
+        private final byte[] data;
+        private final String[] decoded;
+
+        StringTable(ByteBuffer mapped, int offsetsStart, int dataStart, int count) {
+            offsets = new int[count + 1];
+            mapped.slice(offsetsStart, offsets.length * Integer.BYTES).asIntBuffer().get(offsets);
+            data = new byte[offsets[count]];
+            mapped.get(dataStart, data);
+            decoded = new String[count];
+        }
+
+        String get(int reference) {
+            if (reference == NO_STRING) {
+                return null;
+            }
+            String value = decoded[reference];
+            if (value == null) {
+                int start = offsets[reference];
+                value = new String(data, start, offsets[reference + 1] - start, StandardCharsets.UTF_8);
+                decoded[reference] = value;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Book loaded from a snapshot whose author is decoded on first use.
+     */
+    private static final class SnapshotBook extends Book {
+        private final StringTable strings;
+        private final int authorReference;
+
+        SnapshotBook(int id, String title, String barcode, boolean available, LocalDate dueDate,
+                     LocalDate checkoutDate, StringTable strings, int authorReference) {
+            super(id, title, null, barcode, available, dueDate, checkoutDate);
+            this.strings = strings;
+            this.authorReference = authorReference;
+        }
+
+        @Override
+        public String getAuthor() {
+            return strings.get(authorReference);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package catalog;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: BookSnapshotTest
+ * Description: Checks that the binary snapshot reproduces the books file exactly and is
+ * ignored once the text file changes.
+ */
+class BookSnapshotTest {
+    private Path directory;
+    private Path textFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("book-snapshot");
+        textFile = directory.resolve("books.txt");
+        Files.write(textFile, List.of(
+                new Book(1, "Dune", "Frank Herbert", "1001", true, null, null).toFileString(),
+                new Book(2, "Dune", "Frank Herbert", "1002", false, LocalDate.of(2024, 6, 1), null).toFileString(),
+                new Book(3, "A Wizard of Earthsea", "Ursula K. Le Guin", "A-17", true, null, null).toFileString()));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void testSnapshotMatchesTextFile() throws IOException {
+        // The first load parses the text and leaves a snapshot behind
+        List<String> fromText = fileStrings(new Library(textFile.toString()).getBooks());
+        assertTrue(Files.exists(BookSnapshot.pathFor(textFile)));
+
+        BookSnapshot snapshot = BookSnapshot.readIfCurrent(textFile);
+        assertNotNull(snapshot);
+        assertEquals(fromText, fileStrings(snapshot.getBooks()));
+        assertArrayEquals(new int[] {2, 0, 1}, snapshot.getTitleOrder());
+
+        // Loading from the snapshot gives the same books and title order
+        Library reloaded = new Library(textFile.toString());
+        assertEquals(fromText, fileStrings(reloaded.getBooks()));
+        assertEquals(List.of("A-17", "1001", "1002"), reloaded.booksInTitleOrder().stream().map(Book::getBarcode).toList());
+    }
+
+    @Test
+    void testChangedTextFileMakesSnapshotStale() throws IOException {
+        new Library(textFile.toString());
+        FileTime written = Files.getLastModifiedTime(textFile);
+
+        // An edit by hand changes the size and time stamp, so the text is read again
+        Files.writeString(textFile, new Book(4, "Emma", "Jane Austen", "1004", true, null, null).toFileString() + "\n",
+                StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(textFile, FileTime.fromMillis(written.toMillis() + 2000));
+        assertNull(BookSnapshot.readIfCurrent(textFile));
+
+        Library reloaded = new Library(textFile.toString());
+        assertEquals(4, reloaded.getBooks().size());
+        assertNotNull(BookSnapshot.readIfCurrent(textFile));
+    }
+
+    private static List<String> fileStrings(List<Book> books) {
+        return books.stream().map(Book::toFileString).toList();
+    }
+}
@@ -0,0 +1,410 @@
+package catalog;
+
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class BookTest {
+    private Library library;
+
+    @BeforeEach
+    void setUp() {
+        library = new Library("book.txt");
+    }
+
+    private void printTestTitle(String title) {
+        System.out.println(title);
+    }
+
+    /**
+     * 1. Add Books
+     */
+
+    @Test
+    @DisplayName("Test adding books to the database")
+    @Order(1)
+    void testAddBookToDatabase() {
+        printTestTitle("1. Test - Adding books");
+
+        // Add book
+        Book divergentBook = new Book(11, "Divergent", "Veronica Roth", "20245", true, null, null);
+        library.addBook(divergentBook);
+
+        // Retrieve the list of books from the library
+        ArrayList<Book> booksInDatabase = library.getBooks();
+
+        // Check if the added book is in the database
+        assertTrue(booksInDatabase.stream().anyMatch(book -> book.getTitle().equals("Divergent")));
+
+        // Print message for added book
+        System.out.println("Book 'Divergent by Veronica Roth' has been added.");
+
+        // Line separator
+        System.out.println("----------------------------------");
+    }
+
+
+    /**
+     * 2. Remove books by barcode
+     */
+    @Test
+    @DisplayName("Test remove book by barcode")
+    @Order(2)
+    void testRemoveBookByBarcode() {
+        printTestTitle("2. Test - Remove books by barcode");
+
+        // Add a book
+        library.addBook(new Book(16, "Harry Potter", "J.K. Rowling", "13579", true, null, null));
+
+        // Remove a book by barcode
+        library.removeBookByBarcode("13579");
+
+        // Print message about the removed book
+        System.out.println("Book with barcode 13579, Harry Potter, has been removed.");
+
+        // Line separator
+        System.out.println("----------------------------------");
+    }
+
+    /**
+     * 3. Remove books by title
+     */
+    @Test
+    @DisplayName("Test remove book by title")
+    @Order(3)
+    void testRemoveBookByTitle() {
+        printTestTitle("3. Test - Remove books by title");
+
+        // Add a book
+        library.addBook(new Book(13, "The Great Gatsby", "F. Scott Fitzgerald", "98765", true, null, null));
+
+        // Remove a book by title
+        library.removeBookByTitle("The Great Gatsby");
+
+        // Check if the book is removed from the LMS database
+        assertFalse(library.getBooks().stream().anyMatch(book -> book.getTitle().equals("The Great Gatsby")));
+
+        // Line separator
+        System.out.println("----------------------------------");
+    }
+
+    /**
+     * 4. Check Out Book
+     */
+
+    @Test
+    @DisplayName("Test Checking Out a Book")
+    @Order(4)
+    void testCheckOutBook() {
+        printTestTitle("4. Test - Check Out Book");
+
+        // Add a book
+        Book bookToAdd = new Book(14, "To Kill a Mockingbird", "Harper Lee", "12345", true, null, null);
+        library.addBook(bookToAdd);
+
+        // Check out the book
+        library.checkOutBook("To Kill a Mockingbird");
+
+        // Retrieve the book after checking out
+        Book checkedOutBook = library.findBookByTitle("To Kill a Mockingbird");
+
+        // Check if the book was checked out and the due date is not null
+        assertNotNull(checkedOutBook, "Book should have been checked out");
+        assertNotNull(checkedOutBook.getDueDate(), "Due date should not be null after checking out");
+
+        // Line separator
+        System.out.println("----------------------------------");
+    }
+
+    /**
+     * 5. Check-in Books
+     */
+    @Test
+    @DisplayName("Test Checking In a Book")
+    @Order(5)
+    void testCheckInBook() {
+        printTestTitle("5. Test - Check-in Books");
+
+        // Add a book
+        library.addBook(new Book(15, "Pride and Prejudice", "Jane Austen", "24681", false, LocalDate.now().plusDays(7), LocalDate.now()));
+
+        // Check in a book
+        library.checkInBook("Pride and Prejudice");
+
+        // Retrieve the book from the library
+        Book checkedInBook = library.findBookByTitle("Pride and Prejudice");
+
+        // Assert that the book is checked in and the due date is null
+        assertNull(checkedInBook.getDueDate(), "Due date should be null after checking in");
+
+        // Line separator
+        System.out.println("----------------------------------");
+    }
+
+    /**
+     * 6. Ordered views
+     */
+    @Test
+    @DisplayName("Test ordered views by ID, title and due date")
+    @Order(6)
+    void testOrderedViews() {
+        printTestTitle("6. Test - Ordered views");
+
+        // Add books out of ID order, two of them checked out
+        library.addBook(new Book(92, "Brave New World", "Aldous Huxley", "31592", true, null, null));
+        library.addBook(new Book(91, "Anna Karenina", "Leo Tolstoy", "31591", false, LocalDate.now().plusDays(9), LocalDate.now()));
+        library.addBook(new Book(93, "Catch-22", "Joseph Heller", "31593", false, LocalDate.now().plusDays(3), LocalDate.now()));
+        ArrayList<Book> fileOrder = new ArrayList<>(library.getBooks());
+
+        // IDs ascend, titles ascend ignoring case, due dates ascend
+        int previousId = Integer.MIN_VALUE;
+        for (Book book : library.booksInIdOrder()) {
+            assertTrue(book.getId() >= previousId, "Books should be in ID order");
+            previousId = book.getId();
+        }
+        String previousTitle = "";
+        for (Book book : library.booksInTitleOrder()) {
+            assertTrue(Library.normalizeTitle(book.getTitle()).compareTo(previousTitle) >= 0, "Books should be in title order");
+            previousTitle = Library.normalizeTitle(book.getTitle());
+        }
+        LocalDate previousDue = LocalDate.MIN;
+        for (Book book : library.checkedOutBooksByDueDate()) {
+            assertFalse(book.isAvailable(), "Only checked out books have a due date order");
+            assertFalse(book.getDueDate().isBefore(previousDue), "Books should be in due date order");
+            previousDue = book.getDueDate();
+        }
+        assertEquals(library.getBooks().size(), library.booksInIdOrder().size());
+
+        // Checking in removes the book from the due date view; the saved order is untouched
+        library.checkInBook("Catch-22");
+        assertTrue(library.checkedOutBooksByDueDate().stream().noneMatch(book -> book.getTitle().equals("Catch-22")));
+        assertEquals(fileOrder, library.getBooks());
+
+        // Line separator
+        System.out.println("----------------------------------");
+    }
+
+    /**
+     * 7. Overdue and due soon
+     */
+    @Test
+    @DisplayName("Test overdue and due soon queries")
+    @Order(7)
+    void testOverdueAndDueSoon() {
+        printTestTitle("7. Test - Overdue and due soon");
+
+        LocalDate today = LocalDate.now();
+        library.addBook(new Book(94, "Dracula", "Bram Stoker", "31594", false, today.minusDays(2), today.minusDays(30)));
+        library.addBook(new Book(95, "Emma", "Jane Austen", "31595", false, today.plusDays(3), today.minusDays(25)));
+        library.addBook(new Book(96, "Frankenstein", "Mary Shelley", "31596", false, today.plusDays(20), today));
+
+        // Overdue: due before today; due soon: due today through today + 7
+        assertTrue(library.findOverdueBooks(today).stream().anyMatch(book -> book.getTitle().equals("Dracula")));
+        assertTrue(library.findOverdueBooks(today).stream().allMatch(book -> book.getDueDate().isBefore(today)));
+        assertTrue(library.findBooksDueWithin(today, 7).stream().anyMatch(book -> book.getTitle().equals("Emma")));
+        assertTrue(library.findBooksDueWithin(today, 7).stream().noneMatch(book -> book.getTitle().equals("Frankenstein")));
+        assertThrows(IllegalArgumentException.class, () -> library.findBooksDueWithin(today, -1));
+
+        // Checked in books drop out of both
+        library.checkInBook("Dracula");
+        assertTrue(library.findOverdueBooks(today).stream().noneMatch(book -> book.getTitle().equals("Dracula")));
+
+        // Line separator
+        System.out.println("----------------------------------");
+    }
+
+    /**
+     * 8. Search titles and authors
+     */
+    @Test
+    @DisplayName("Test searching titles and authors")
+    @Order(8)
+    void testSearchBooks() {
+        printTestTitle("8. Test - Search titles and authors");
+
+        library.addBook(new Book(97, "The Hobbit", "J.R.R. Tolkien", "31597", true, null, null));
+        library.addBook(new Book(98, "The Fellowship of the Ring", "J.R.R. Tolkien", "31598", true, null, null));
+        library.addBook(new Book(99, "Tolkien's World", "Ann Critic", "31599", true, null, null));
+
+        // Every word must match; case and punctuation are ignored and the last word may be partial
+        assertEquals("The Fellowship of the Ring", library.searchBooks("tolkien RING", 10).get(0).getTitle());
+        assertTrue(library.searchBooks("hobb", 10).stream().anyMatch(book -> book.getTitle().equals("The Hobbit")));
+        assertTrue(library.searchBooks("hobbit ring", 10).isEmpty());
+
+        // A word in the title ranks above the same word in the author
+        assertEquals("Tolkien's World", library.searchBooks("tolkiens", 10).get(0).getTitle());
+        assertEquals(1, library.searchBooks("tolkien", 1).size());
+
+        // The index follows additions and removals after the first search
+        library.removeBook(library.findBookByBarcode("31597"));
+        assertTrue(library.searchBooks("hobbit", 10).stream().noneMatch(book -> book.getBarcode().equals("31597")));
+        library.addBook(new Book(100, "Hobbit Recipes", "Cook", "31600", true, null, null));
+        assertEquals("Hobbit Recipes", library.searchBooks("hobbit recipe", 10).get(0).getTitle());
+
+        // Line separator
+        System.out.println("----------------------------------");
+    }
+
+    /**
+     * 9. Title completion
+     */
+    @Test
+    @DisplayName("Test completing titles for checkout and check in")
+    @Order(9)
+    void testCompleteTitles() {
+        printTestTitle("9. Test - Title completion");
+
+        library.addBook(new Book(101, "Moby Dick", "Herman Melville", "31601", false, LocalDate.now().plusDays(5), LocalDate.now()));
+        library.addBook(new Book(102, "Moby Dick", "Herman Melville", "31602", true, null, null));
+        library.addBook(new Book(103, "Mockingjay", "Suzanne Collins", "31603", false, LocalDate.now().plusDays(5), LocalDate.now()));
+
+        // Checkout suggestions list titles with a copy on the shelf, check in ones with a copy out
+        assertEquals(List.of("Moby Dick"), library.completeTitles("  mOB", true, 5));
+        assertTrue(library.completeTitles("mo", true, 5).stream().noneMatch(title -> title.equals("Mockingjay")));
+        assertTrue(library.completeTitles("mo", false, 5).containsAll(List.of("Moby Dick", "Mockingjay")));
+        assertEquals(1, library.completeTitles("mo", false, 1).size());
+
+        // Checking out a suggested title takes the copy on the shelf
+        assertEquals("31602", library.checkOutBook("Moby Dick").getBarcode());
+        assertTrue(library.completeTitles("moby", true, 5).isEmpty());
+
+        // Checking in moves the title back to the checkout suggestions
+        assertTrue(library.checkInBook("Mockingjay"));
+        assertEquals(List.of("Mockingjay"), library.completeTitles("mock", true, 5));
+
+        // Line separator
+        System.out.println("----------------------------------");
+    }
+
+    /**
+     * 10. Batches save once
+     */
+    @Test
+    @DisplayName("Test batched changes are saved once, at commit")
+    @Order(10)
+    void testBatchSavesOnce() throws IOException {
+        printTestTitle("10. Test - Batches");
+
+        Path file = Files.createTempFile("batch", ".txt");
+        try {
+            Library batchLibrary = new Library(file.toString());
+            batchLibrary.beginBatch();
+            for (int i = 0; i < 5; i++) {
+                batchLibrary.addBook(new Book(200 + i, "Batch " + i, "Author", String.valueOf(40000 + i), true, null, null));
+            }
+            // Nothing is written until the batch is committed
+            assertTrue(batchLibrary.hasPendingChanges());
+            assertEquals(0, Files.readAllLines(file).size());
+            batchLibrary.commitBatch();
+            assertFalse(batchLibrary.hasPendingChanges());
+            assertEquals(5, Files.readAllLines(file).size());
+
+            // Bulk removal drops every listed copy in one save; unknown barcodes are skipped
+            assertEquals(2, batchLibrary.removeAllByBarcode(List.of("40001", "40003", "99999")));
+            assertEquals(3, Files.readAllLines(file).size());
+            assertNull(batchLibrary.findBookByBarcode("40001"));
+
+            // With write-behind, changes wait for flush()
+            batchLibrary.setWriteBehind(true);
+            batchLibrary.removeBookByBarcode("40000");
+            assertEquals(3, Files.readAllLines(file).size());
+            batchLibrary.flush();
+            assertEquals(2, Files.readAllLines(file).size());
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(BookSnapshot.pathFor(file));
+        }
+
+        // Line separator
+        System.out.println("----------------------------------");
+    }
+
+    /**
+     * 11. Copies of a title
+     */
+    @Test
+    @DisplayName("Test checking out and in copies of the same title")
+    @Order(11)
+    void testTitleHoldings() throws IOException {
+        printTestTitle("11. Test - Copies of a title");
+
+        Path file = Files.createTempFile("holdings", ".txt");
+        try {
+            Library holdingsLibrary = new Library(file.toString());
+            holdingsLibrary.addBook(new Book(1, "Persuasion", "Jane Austen", "50001", true, null, null));
+            holdingsLibrary.addBook(new Book(2, "Persuasion", "Jane Austen", "50002", false, LocalDate.now().plusDays(3), LocalDate.now()));
+            holdingsLibrary.addBook(new Book(3, "persuasion ", "Jane Austen", "50003", true, null, null));
+            assertEquals(3, holdingsLibrary.getTotalCopies("PERSUASION"));
+            assertEquals(2, holdingsLibrary.getAvailableCopies("Persuasion"));
+
+            // Each checkout takes a different copy until none is left
+            Book first = holdingsLibrary.checkOutBook("Persuasion");
+            Book second = holdingsLibrary.checkOutBook("Persuasion");
+            assertNotNull(first);
+            assertNotNull(second);
+            assertNotSame(first, second);
+            assertFalse(first.isAvailable());
+            assertEquals(0, holdingsLibrary.getAvailableCopies("Persuasion"));
+            assertNull(holdingsLibrary.checkOutBook("Persuasion"));
+
+            // Check in and removal keep the counts in step
+            assertTrue(holdingsLibrary.checkInBook("Persuasion"));
+            assertEquals(1, holdingsLibrary.getAvailableCopies("Persuasion"));
+            holdingsLibrary.removeBookByBarcode("50002");
+            assertEquals(2, holdingsLibrary.getTotalCopies("Persuasion"));
+            assertEquals(1, holdingsLibrary.findHoldings("persuasion").stream().filter(Book::isAvailable).count());
+            assertEquals(0, holdingsLibrary.getTotalCopies("Emma"));
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(BookSnapshot.pathFor(file));
+        }
+
+        // Line separator
+        System.out.println("----------------------------------");
+    }
+
+    /**
+     * 12. Removing books
+     */
+    @Test
+    @DisplayName("Test removed books leave the list in order and the returned list is a copy")
+    @Order(12)
+    void testRemoveKeepsOrder() throws IOException {
+        printTestTitle("12. Test - Removing books");
+
+        Path file = Files.createTempFile("removal", ".txt");
+        try {
+            Library removalLibrary = new Library(file.toString());
+            List<Book> added = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                added.add(new Book(i, "Title " + i, "Author", String.valueOf(70000 + i), true, null, null));
+            }
+            removalLibrary.addAll(added);
+            assertTrue(removalLibrary.removeBook(added.get(1)));
+            assertFalse(removalLibrary.removeBook(added.get(1)));
+            removalLibrary.removeBookByBarcode("70004");
+            assertEquals(List.of(added.get(0), added.get(2), added.get(3), added.get(5)), removalLibrary.getBooks());
+
+            // A removed copy can be added back; it goes to the end of the list
+            removalLibrary.addBook(added.get(1));
+            assertEquals(5, removalLibrary.getBooks().size());
+            assertSame(added.get(1), removalLibrary.getBooks().get(4));
+            // The returned list is a copy
+            removalLibrary.getBooks().remove(0);
+            assertEquals(5, removalLibrary.getBooks().size());
+            assertEquals(5, new Library(file.toString()).getBooks().size());
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(BookSnapshot.pathFor(file));
+        }
+
+        // Line separator
+        System.out.println("----------------------------------");
+    }
+}
@@ -0,0 +1,103 @@
+package catalog;
+
+import java.time.LocalDate;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: CatalogChange
+ * Description: One change Library hands to its CatalogStore: a book added or removed, or a
+ * copy checked out or in. The checkout dates are taken when the change is made, so a change
+ * written later (at the end of a batch) still says what happened at the time.
+ */
+public final class CatalogChange {
+
+    /**
+     * What happened to the book.
+     */
+    public enum Type {
+        ADD,
+        REMOVE,
+        CHECK_OUT,
+        CHECK_IN
+    }
+
+    private final Type type;
+    private final Book book;
+    private final LocalDate checkoutDate;
+    private final LocalDate dueDate;
+
+    private CatalogChange(Type type, Book book, LocalDate checkoutDate, LocalDate dueDate) {
+        this.type = type;
+        this.book = book;
+        this.checkoutDate = checkoutDate;
+        this.dueDate = dueDate;
+    }
+
+    /**
+     * Method to describe a book added to the catalog.
+     * @param book The new book.
+     * @return The change.
+     */
+    public static CatalogChange added(Book book) {
+        return new CatalogChange(Type.ADD, book, null, null);
+    }
+
+    /**
+     * Method to describe a book removed from the catalog.
+     * @param book The removed book.
+     * @return The change.
+     */
+    public static CatalogChange removed(Book book) {
+        return new CatalogChange(Type.REMOVE, book, book.getCheckoutDate(), book.getDueDate());
+    }
+
+    /**
+     * Method to describe a copy that has just been checked out.
+     * @param book The copy, with its checkout and due dates already set.
+     * @return The change.
+     */
+    public static CatalogChange checkedOut(Book book) {
+        return new CatalogChange(Type.CHECK_OUT, book, book.getCheckoutDate(), book.getDueDate());
+    }
+
+    /**
+     * Method to describe a copy about to be checked in. Call it before clearing the copy's
+     * dates, so the change records which checked-out copy it was.
+     * @param book The copy, still with its checkout and due dates.
+     * @return The change.
+     */
+    public static CatalogChange checkedIn(Book book) {
+        return new CatalogChange(Type.CHECK_IN, book, book.getCheckoutDate(), book.getDueDate());
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Getter method for the book changed. Its ID and barcode identify it in the store;
+     * its other fields may have changed again since.
+     * @return The book.
+     */
+    public Book getBook() {
+        return book;
+    }
+
+    /**
+     * Getter method for the checkout date: the new one for CHECK_OUT, and the one the copy
+     * had before for CHECK_IN and REMOVE.
+     * @return The date, or null for ADD or a copy that had none.
+     */
+    public LocalDate getCheckoutDate() {
+        return checkoutDate;
+    }
+
+    /**
+     * Getter method for the due date, with the same meaning as getCheckoutDate().
+     * @return The date, or null for ADD or a copy that had none.
+     */
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+}
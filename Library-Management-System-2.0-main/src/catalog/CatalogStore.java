@@ -0,0 +1,144 @@
+package catalog;
+
+import java.io.IOException;
+import java.util.List;
+import JDBC.SqliteCatalogStore;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: CatalogStore
+ * Description: Where a Library keeps its books between runs. Library holds the catalog and
+ * its indexes in memory and does every lookup itself; the store only loads the books once
+ * and saves the changes made to them. Implementations:
+ *     FileCatalogStore     the books text file, with its binary snapshot and optional journal
+ *     SqliteCatalogStore   the books table of LMSlibrary.db; JDBC_GUI always uses it
+ *     InMemoryCatalogStore nothing is saved; for tests and for measuring Library alone
+ * Every method is called from the thread that owns the Library.
+ * Choose one with open() or forSystemProperties(), or construct it directly.
+ */
+public interface CatalogStore {
+    String FILE = "file";
+    String SQLITE = "sqlite";
+    String MEMORY = "memory";
+
+    /**
+     * The books read by load(), in the order they are kept.
+     */
+    final class Contents {
+        private final List<Book> books;
+        private final int[] titleOrder;
+
+        /**
+         * Constructor for the Contents class.
+         * @param books The books.
+         * @param titleOrder Positions in books sorted by normalized title, or null if not known.
+         */
+        public Contents(List<Book> books, int[] titleOrder) {
+            this.books = books;
+            this.titleOrder = titleOrder;
+        }
+
+        public List<Book> getBooks() {
+            return books;
+        }
+
+        /**
+         * Getter method for the title order, which lets Library fill its title index in key order.
+         * @return Positions in getBooks() in normalized title order, or null if the store does not keep one.
+         */
+        public int[] getTitleOrder() {
+            return titleOrder;
+        }
+    }
+
+    /**
+     * Getter method for a short description of the store, for messages.
+     * @return The file name, database URL or "memory".
+     */
+    String getName();
+
+    /**
+     * Method to read every book in the store.
+     * @return The books.
+     * @throws IOException If the store cannot be read.
+     */
+    Contents load() throws IOException;
+
+    /**
+     * Method to tell whether another program changed the store since this one last loaded
+     * it. Stores that only this program writes keep the default, which says no.
+     * @return true if load() may now return different books.
+     * @throws IOException If the store cannot be checked.
+     */
+    default boolean hasExternalChanges() throws IOException {
+        return false;
+    }
+
+    /**
+     * Method to save changes made since the last write, in order, as one unit where the
+     * store allows it (one transaction, or one journal write).
+     * @param changes The changes, oldest first.
+     * @param books Every book as it stands now, for stores that rewrite the whole catalog;
+     *              only read during the call.
+     * @throws IOException If the changes cannot be saved, e.g. another program changed a row
+     *                     they touch. Library then reloads the books from the store.
+     */
+    void write(List<CatalogChange> changes, List<Book> books) throws IOException;
+
+    /**
+     * Method to replace everything in the store with the books.
+     * @param books Every book; only read during the call.
+     * @throws IOException If the books cannot be saved.
+     */
+    void writeAll(List<Book> books) throws IOException;
+
+    /**
+     * Method to bring the store's main copy up to date before it is closed, e.g. fold a
+     * journal into the books file. Stores that write every change in place do nothing.
+     * @param books Every book as it stands now; only read during the call.
+     * @throws IOException If the store cannot be written.
+     */
+    void checkpoint(List<Book> books) throws IOException;
+
+    /**
+     * Method to release the store's files or connections.
+     * @throws IOException If the store cannot be closed cleanly.
+     */
+    void close() throws IOException;
+
+    /**
+     * Method to open a store by kind.
+     * @param kind FILE, SQLITE or MEMORY.
+     * @param location The books file, or the JDBC URL for SQLITE. A MEMORY store starts
+     *                 with the books of this file, if it exists, and never writes to it.
+     * @return The store.
+     * @throws IOException If the store cannot be opened.
+     */
+    static CatalogStore open(String kind, String location) throws IOException {
+        switch (kind) {
+            case FILE:
+                return new FileCatalogStore(location);
+            case SQLITE:
+                return new SqliteCatalogStore(location);
+            case MEMORY:
+                return InMemoryCatalogStore.copyOf(location);
+            default:
+                throw new IllegalArgumentException("Unknown catalog store '" + kind
+                        + "'; use " + FILE + ", " + SQLITE + " or " + MEMORY);
+        }
+    }
+
+    /**
+     * Method to open the store the programs' main methods use: -Dlibrary.store picks the kind
+     * (default file) and -Dlibrary.location the file or JDBC URL.
+     * @param defaultFile The books file to use when no location is given.
+     * @return The store.
+     * @throws IOException If the store cannot be opened.
+     */
+    static CatalogStore forSystemProperties(String defaultFile) throws IOException {
+        String kind = System.getProperty("library.store", FILE);
+        String defaultLocation = kind.equals(SQLITE) ? SqliteCatalogStore.DEFAULT_URL : defaultFile;
+        return open(kind, System.getProperty("library.location", defaultLocation));
+    }
+}
@@ -0,0 +1,164 @@
+package catalog;
+
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import JDBC.BookRecord;
+import JDBC.SqliteCatalogStore;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the same circulation through a Library on each CatalogStore and checks a fresh
+ * store opened on the same location sees the result.
+ */
+class CatalogStoreTest {
+    private static final int BOOKS = 20;
+
+    private Path directory;
+    private String fileName;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("catalog-store");
+        fileName = directory.resolve("books.txt").toString();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            lines.add(new Book(i, "Title " + i, "Author", String.valueOf(60000 + i), true, null, null).toFileString());
+        }
+        Files.write(Path.of(fileName), lines);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    @DisplayName("The books file keeps adds, removes and checkouts")
+    void testFileStore() throws IOException {
+        Library library = new Library(new FileCatalogStore(fileName));
+        circulate(library);
+        library.close();
+        assertCirculated(new Library(new FileCatalogStore(fileName)));
+    }
+
+    @Test
+    @DisplayName("The SQLite books table keeps adds, removes and checkouts")
+    void testSqliteStore() throws IOException {
+        String url = "jdbc:sqlite:" + directory.resolve("books.db");
+        CatalogStore seed = new SqliteCatalogStore(url);
+        seed.writeAll(new FileCatalogStore(fileName).load().getBooks());
+        Library library = new Library(seed);
+        circulate(library);
+        library.close();
+
+        Library reopened = new Library(new SqliteCatalogStore(url));
+        assertCirculated(reopened);
+        // Unlike the books file, the table has a column for the checkout date
+        assertEquals(LocalDate.now(), reopened.findBookByTitle("Title 1").getCheckoutDate());
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("SQLite rows are kept apart when barcodes repeat, and a refused write does not block later ones")
+    void testSqliteDuplicatesAndConflicts() throws IOException, SQLException {
+        String url = "jdbc:sqlite:" + directory.resolve("books.db");
+        CatalogStore seed = new SqliteCatalogStore(url);
+        seed.writeAll(List.of(new Book(1, "Dune", "Frank Herbert", "24681", true, null, null),
+                new Book(2, "Emma", "Jane Austen", "24681", true, null, null),
+                new Book(3, "Ulysses", "James Joyce", "13579", true, null, null)));
+        Library library = new Library(seed);
+        assertNotNull(library.checkOutByBarcode("24681"));
+        assertNotNull(library.checkOutByBarcode("24681"));
+        library.removeBookByBarcode("24681");
+
+        // Another program checks out Ulysses behind the library's back
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE books SET status = '" + BookRecord.CHECKED_OUT + "' WHERE barcode = 13579");
+        }
+        library.beginBatch();
+        assertNotNull(library.checkOutBook("Ulysses"));
+        assertTrue(library.addBook(new Book(4, "Added", "Author", "24681", true, null, null)));
+        assertFalse(library.commitBatch());
+        // The library reloaded: it sees the other program's checkout, and the next change is saved
+        assertFalse(library.findBookByTitle("Ulysses").isAvailable());
+        assertNull(library.findBookByTitle("Added"));
+        assertTrue(library.checkInBook("Ulysses"));
+        library.close();
+
+        Library reopened = new Library(new SqliteCatalogStore(url));
+        assertEquals(2, reopened.getBooks().size());
+        assertEquals(1, reopened.getBooks().stream().filter(book -> book.getBarcode().equals("24681")).count());
+        assertFalse(reopened.findBookByBarcode("24681").isAvailable());
+        assertTrue(reopened.findBookByTitle("Ulysses").isAvailable());
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("The in-memory store keeps changes across a reload but never writes the file")
+    void testMemoryStore() throws IOException {
+        Library library = new Library(InMemoryCatalogStore.copyOf(fileName));
+        circulate(library);
+        library.reload();
+        assertCirculated(library);
+        assertEquals(BOOKS, Files.readAllLines(Path.of(fileName)).size());
+    }
+
+    @Test
+    @DisplayName("The journal brings back the copy that changed when copies share an ID and barcode")
+    void testJournalReplayWithDuplicateCopies() throws IOException {
+        // Like book.txt's copies of Pride and Prejudice: same ID and barcode, different due dates
+        Files.write(Path.of(fileName), List.of(
+                "15,Dune,Frank Herbert,24681,false,2026-03-30",
+                "15,Dune,Frank Herbert,24681,true,null",
+                "15,Dune,Frank Herbert,24681,false,2026-04-15",
+                "15,Dune,Frank Herbert,24681,true,null"));
+        Library library = new Library(new FileCatalogStore(fileName));
+        library.enableJournal(1, 3600);
+        assertTrue(library.checkInBook("Dune"));
+        assertNotNull(library.checkOutBook("Dune"));
+        assertTrue(library.checkInBook("Dune"));
+        library.removeBookByBarcode("24681");
+        List<String> expected = library.getBooks().stream().map(Book::toFileString).toList();
+
+        // Reopen without closing, so the state comes from the file plus the journal
+        Library reopened = new Library(new FileCatalogStore(fileName));
+        assertEquals(expected, reopened.getBooks().stream().map(Book::toFileString).toList());
+        library.close();
+        reopened.close();
+    }
+
+    private static void circulate(Library library) {
+        library.addBook(new Book(100, "Added", "Author", "69999", true, null, null));
+        library.removeBookByBarcode("60005");
+        assertNotNull(library.checkOutBook("Title 1"));
+        assertNotNull(library.checkOutBook("Title 2"));
+        assertTrue(library.checkInBook("Title 2"));
+    }
+
+    private static void assertCirculated(Library library) {
+        assertEquals(BOOKS, library.getBooks().size());
+        assertEquals(100, library.findBookByBarcode("69999").getId());
+        assertNull(library.findBookByBarcode("60005"));
+        Book checkedOut = library.findBookByTitle("Title 1");
+        assertFalse(checkedOut.isAvailable());
+        assertEquals(LocalDate.now().plusWeeks(4), checkedOut.getDueDate());
+        Book checkedIn = library.findBookByTitle("Title 2");
+        assertTrue(checkedIn.isAvailable());
+        assertNull(checkedIn.getDueDate());
+    }
+}
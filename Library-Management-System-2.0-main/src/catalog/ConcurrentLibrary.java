@@ -0,0 +1,344 @@
+package catalog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: ConcurrentLibrary
+ * Description: Thread-safe variant of Library for serving many circulation desks
+ * from one JVM. Lookups are lock-free reads of concurrent maps; checkout, checkin
+ * and removal lock only the stripe that owns the book's barcode, so two desks can
+ * never check out the same copy. Changes are persisted through the same journal
+ * format as Library, so either class can open the other's files.
+ */
+public class ConcurrentLibrary implements Closeable {
+    private static final int STRIPES = 64;
+
+    private final String fileName;
+    private final BookJournal journal;
+
+    // Books in insertion order (keyed by a sequence number) plus each book's sequence number
+    private final ConcurrentSkipListMap<Long, Book> books = new ConcurrentSkipListMap<>();
+    private final Map<Book, Long> sequenceOf = new ConcurrentHashMap<>();
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    private final Map<String, List<Book>> booksByBarcode = new ConcurrentHashMap<>();
+    private final Map<Integer, List<Book>> booksById = new ConcurrentHashMap<>();
+    private final Map<String, List<Book>> booksByTitle = new ConcurrentHashMap<>();
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    // Mutations share this lock; saveBooksToFile takes it exclusively for a consistent snapshot
+    private final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
+    /**
+     * Constructor for the ConcurrentLibrary class.
+     * Loads the file and replays any journal, then journals every later change.
+     * @param fileName The name of the file containing book data.
+     * @param syncEvery Number of journal records per fsync; 0 leaves syncing to the OS.
+     * @throws IOException If the journal cannot be opened.
+     */
+    public ConcurrentLibrary(String fileName, int syncEvery) throws IOException {
+        this.fileName = fileName;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        for (Book book : new Library(fileName).getBooks()) {
+            insert(book);
+        }
+        this.journal = new BookJournal(Path.of(fileName + ".journal"), syncEvery);
+    }
+
+    /**
+     * Method to add a book to the library.
+     * @param book The book to be added.
+     */
+    public void addBook(Book book) {
+        snapshotLock.readLock().lock();
+        ReentrantLock stripe = stripeFor(book.getBarcode());
+        stripe.lock();
+        try {
+            insert(book);
+            journal(BookJournal.ADD, book.toFileString());
+        } finally {
+            stripe.unlock();
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Method to remove a book from the library by its barcode.
+     * @param barcode The barcode of the book to be removed.
+     * @return true if a book was removed.
+     */
+    public boolean removeBookByBarcode(String barcode) {
+        Book book = findBookByBarcode(barcode);
+        return book != null && removeBook(book);
+    }
+
+    /**
+     * Method to remove a book from the library by its title.
+     * @param title The title of the book to be removed.
+     * @return true if a book was removed.
+     */
+    public boolean removeBookByTitle(String title) {
+        Book book = findBookByTitle(title);
+        return book != null && removeBook(book);
+    }
+
+    /**
+     * Method to remove a specific book instance from the library.
+     * @param book The book to be removed.
+     * @return true if the book was still in the library and has been removed.
+     */
+    public boolean removeBook(Book book) {
+        snapshotLock.readLock().lock();
+        ReentrantLock stripe = stripeFor(book.getBarcode());
+        stripe.lock();
+        try {
+            Long sequence = sequenceOf.remove(book);
+            if (sequence == null) {
+                return false; // removed by another thread first
+            }
+            books.remove(sequence);
+            removeFromIndex(booksByBarcode, book.getBarcode(), book);
+            removeFromIndex(booksById, book.getId(), book);
+            removeFromIndex(booksByTitle, Library.normalizeTitle(book.getTitle()), book);
+            journal(BookJournal.REMOVE, BookJournal.copyPayload(book, book.getCheckoutDate(), book.getDueDate()));
+            return true;
+        } finally {
+            stripe.unlock();
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Method to check out an available copy of a title.
+     * @param title The title of the book to be checked out.
+     * @return The checked out book, or null if no copy is available.
+     */
+    public Book checkOutBook(String title) {
+        for (Book book : titleMatches(title)) {
+            if (book.isAvailable() && checkOut(book)) {
+                return book;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Method to check out the book with a barcode.
+     * @param barcode The barcode of the book to be checked out.
+     * @return The checked out book, or null if it is not found or not available.
+     */
+    public Book checkOutBookByBarcode(String barcode) {
+        for (Book book : bucket(booksByBarcode, barcode)) {
+            if (book.isAvailable() && checkOut(book)) {
+                return book;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Method to check in a checked out copy of a title.
+     * @param title The title of the book to be checked in.
+     * @return true if a copy was checked in.
+     */
+    public boolean checkInBook(String title) {
+        for (Book book : titleMatches(title)) {
+            if (!book.isAvailable() && checkIn(book)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method to check in the book with a barcode.
+     * @param barcode The barcode of the book to be checked in.
+     * @return true if the book was checked out and is now checked in.
+     */
+    public boolean checkInBookByBarcode(String barcode) {
+        for (Book book : bucket(booksByBarcode, barcode)) {
+            if (!book.isAvailable() && checkIn(book)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method to find a book by its title.
+     * @param title The title of the book to be found.
+     * @return The book with the specified title, or null if not found.
+     */
+    public Book findBookByTitle(String title) {
+        List<Book> matches = titleMatches(title);
+        return matches.isEmpty() ? null : matches.get(0);
+    }
+
+    /**
+     * Method to find a book by its barcode.
+     * @param barcode The barcode of the book to be found.
+     * @return The book with the specified barcode, or null if not found.
+     */
+    public Book findBookByBarcode(String barcode) {
+        List<Book> bucket = bucket(booksByBarcode, barcode);
+        return bucket.isEmpty() ? null : bucket.get(0);
+    }
+
+    /**
+     * Method to find a book by its ID.
+     * @param id The ID of the book to be found.
+     * @return The book with the specified ID, or null if not found.
+     */
+    public Book findBookById(int id) {
+        List<Book> bucket = bucket(booksById, id);
+        return bucket.isEmpty() ? null : bucket.get(0);
+    }
+
+    /**
+     * Getter method for the books in the library.
+     * @return A read-only, weakly consistent view of the books in insertion order.
+     */
+    public Collection<Book> getBooks() {
+        return Collections.unmodifiableCollection(books.values());
+    }
+
+    /**
+     * Method to write a consistent snapshot of the books file and compact the journal.
+     * Mutations wait while the snapshot is taken; lookups do not.
+     */
+    public void saveBooksToFile() {
+        snapshotLock.writeLock().lock();
+        try {
+            journal.rotate(Path.of(fileName + ".journal.old"));
+            FileCatalogStore.writeCompactedSnapshot(fileName, new ArrayList<>(books.values()));
+            System.out.println("Books saved successfully to file.");
+        } catch (IOException e) {
+            System.out.println("Error saving books to file: " + e.getMessage());
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        saveBooksToFile();
+        journal.close();
+    }
+
+    // Checkout and checkin under the barcode's stripe lock
+
+    private boolean checkOut(Book book) {
+        snapshotLock.readLock().lock();
+        ReentrantLock stripe = stripeFor(book.getBarcode());
+        stripe.lock();
+        try {
+            // Re-check under the lock: another desk may have won the race or removed the book
+            if (!book.isAvailable() || !sequenceOf.containsKey(book)) {
+                return false;
+            }
+            LocalDate checkoutDate = LocalDate.now();
+            LocalDate dueDate = checkoutDate.plusWeeks(4);
+            book.setCheckoutDate(checkoutDate);
+            book.setDueDate(dueDate);
+            book.setAvailable(false); // volatile write publishes the dates set above
+            journal(BookJournal.CHECKOUT, BookJournal.copyPayload(book, checkoutDate, dueDate));
+            return true;
+        } finally {
+            stripe.unlock();
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    private boolean checkIn(Book book) {
+        snapshotLock.readLock().lock();
+        ReentrantLock stripe = stripeFor(book.getBarcode());
+        stripe.lock();
+        try {
+            if (book.isAvailable() || !sequenceOf.containsKey(book)) {
+                return false;
+            }
+            String payload = BookJournal.copyPayload(book, book.getCheckoutDate(), book.getDueDate());
+            book.setCheckoutDate(null);
+            book.setDueDate(null);
+            book.setAvailable(true);
+            journal(BookJournal.CHECKIN, payload);
+            return true;
+        } finally {
+            stripe.unlock();
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    private ReentrantLock stripeFor(String barcode) {
+        int hash = barcode == null ? 0 : barcode.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private void journal(String type, String payload) {
+        try {
+            journal.append(type, payload);
+        } catch (IOException e) {
+            System.out.println("Error writing to journal: " + e.getMessage());
+        }
+    }
+
+    // Index maintenance; buckets are copy-on-write so readers iterate them without locking
+
+    private void insert(Book book) {
+        long sequence = nextSequence.getAndIncrement();
+        sequenceOf.put(book, sequence);
+        books.put(sequence, book);
+        addToIndex(booksByBarcode, book.getBarcode(), book);
+        addToIndex(booksById, book.getId(), book);
+        addToIndex(booksByTitle, Library.normalizeTitle(book.getTitle()), book);
+    }
+
+    private List<Book> titleMatches(String title) {
+        List<Book> matches = new ArrayList<>(1);
+        for (Book book : bucket(booksByTitle, Library.normalizeTitle(title))) {
+            if (book.getTitle().equals(title)) {
+                matches.add(book);
+            }
+        }
+        return matches;
+    }
+
+    private static <K> List<Book> bucket(Map<K, List<Book>> index, K key) {
+        List<Book> bucket = key == null ? null : index.get(key);
+        return bucket == null ? Collections.emptyList() : bucket;
+    }
+
+    private static <K> void addToIndex(Map<K, List<Book>> index, K key, Book book) {
+        index.compute(key, (k, bucket) -> {
+            List<Book> updated = bucket == null ? new CopyOnWriteArrayList<>() : bucket;
+            updated.add(book);
+            return updated;
+        });
+    }
+
+    private static <K> void removeFromIndex(Map<K, List<Book>> index, K key, Book book) {
+        index.computeIfPresent(key, (k, bucket) -> {
+            bucket.remove(book);
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+}
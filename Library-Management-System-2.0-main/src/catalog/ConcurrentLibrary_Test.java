@@ -0,0 +1,141 @@
+package catalog;
+
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Multithreaded stress tests showing ConcurrentLibrary never hands the same copy to two desks.
+ */
+class ConcurrentLibraryTest {
+    private static final int BOOKS = 200;
+    private static final int THREADS = 16;
+
+    private Path directory;
+    private String fileName;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("concurrent-library");
+        fileName = directory.resolve("books.txt").toString();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            lines.add(new Book(i, "Title " + i, "Author", String.valueOf(50000 + i), true, null, null).toFileString());
+        }
+        Files.write(Path.of(fileName), lines);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    @DisplayName("Every copy is checked out exactly once when all desks race for it")
+    void testNoDoubleCheckout() throws Exception {
+        try (ConcurrentLibrary library = new ConcurrentLibrary(fileName, 0)) {
+            AtomicIntegerArray wins = new AtomicIntegerArray(BOOKS);
+            runOnAllThreads(() -> {
+                for (int i = 0; i < BOOKS; i++) {
+                    Book book = library.checkOutBook("Title " + i);
+                    if (book != null) {
+                        wins.incrementAndGet(book.getId());
+                    }
+                }
+            });
+            for (int i = 0; i < BOOKS; i++) {
+                assertEquals(1, wins.get(i), "checkouts of book " + i);
+                assertFalse(library.findBookById(i).isAvailable());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Checkout/checkin cycles never leave a copy with two holders")
+    void testCheckoutCheckinCycles() throws Exception {
+        AtomicIntegerArray holders = new AtomicIntegerArray(BOOKS);
+        AtomicInteger violations = new AtomicInteger();
+        AtomicInteger checkouts = new AtomicInteger();
+        try (ConcurrentLibrary library = new ConcurrentLibrary(fileName, 0)) {
+            runOnAllThreads(() -> {
+                for (int round = 0; round < 2000; round++) {
+                    String barcode = String.valueOf(50000 + (round * 7 + (int) Thread.currentThread().getId()) % BOOKS);
+                    Book book = library.checkOutBookByBarcode(barcode);
+                    if (book != null) {
+                        checkouts.incrementAndGet();
+                        if (holders.incrementAndGet(book.getId()) != 1) {
+                            violations.incrementAndGet();
+                        }
+                        holders.decrementAndGet(book.getId());
+                        assertTrue(library.checkInBookByBarcode(barcode), "holder must be able to check in");
+                    }
+                }
+            });
+        }
+        assertEquals(0, violations.get(), "copies held by two desks at once");
+        assertTrue(checkouts.get() > 0);
+
+        // The journal written under contention replays to the same state
+        Library reopened = new Library(fileName);
+        assertEquals(BOOKS, reopened.getBooks().size());
+        assertTrue(reopened.getBooks().stream().allMatch(Book::isAvailable));
+    }
+
+    @Test
+    @DisplayName("Removal racing with checkout never checks out a removed book")
+    void testRemoveRacesCheckout() throws Exception {
+        try (ConcurrentLibrary library = new ConcurrentLibrary(fileName, 0)) {
+            AtomicInteger removed = new AtomicInteger();
+            runOnAllThreads(() -> {
+                for (int i = 0; i < BOOKS; i++) {
+                    if (Thread.currentThread().getId() % 2 == 0) {
+                        if (library.removeBookByBarcode(String.valueOf(50000 + i))) {
+                            removed.incrementAndGet();
+                        }
+                    } else {
+                        library.checkOutBook("Title " + i);
+                    }
+                }
+            });
+            assertEquals(BOOKS - removed.get(), library.getBooks().size());
+            for (Book book : library.getBooks()) {
+                assertSame(book, library.findBookByBarcode(book.getBarcode()));
+            }
+        }
+    }
+
+    private static void runOnAllThreads(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(); // rethrows assertion failures from worker threads
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
+}
@@ -0,0 +1,495 @@
+package catalog;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import metrics.Counter;
+import metrics.Metrics;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: FileCatalogStore
+ * Description: CatalogStore on the books text file. Loading reads the binary snapshot
+ * (see BookSnapshot) when it is current and the text otherwise, then replays any journal
+ * records. Without a journal every write rewrites the whole file. With one (enableJournal)
+ * each write appends the changes to "fileName.journal", and a background compactor
+ * periodically folds the journal into a fresh copy of the file.
+ */
+public class FileCatalogStore implements CatalogStore {
+    private static final long JOURNAL_COMPACT_BYTES = 4L * 1024 * 1024;
+    private static final Counter INVALID_ENTRIES = Metrics.counter("library.invalid_entries");
+    // Skipped lines and journal records are logged as warnings; by default java.util.logging
+    // writes them to standard error, and its configuration can send them elsewhere
+    private static final System.Logger LOG = System.getLogger(FileCatalogStore.class.getName());
+
+    private final String fileName;
+    private BookJournal journal;
+    private ScheduledExecutorService compactor;
+    private Future<?> pendingCompaction;
+    private volatile boolean compactionDue;
+
+    /**
+     * Constructor for the FileCatalogStore class. Nothing is read until load().
+     * @param fileName The books file.
+     */
+    public FileCatalogStore(String fileName) {
+        this.fileName = fileName;
+    }
+
+    @Override
+    public String getName() {
+        return fileName;
+    }
+
+    /**
+     * Method to load the books. A missing or unreadable text file counts as empty, so
+     * journal records written since are still replayed.
+     * @return The books, with the title order of the snapshot when no journal record changed the list.
+     * @throws IOException If an interrupted compaction cannot be recovered.
+     */
+    @Override
+    public Contents load() throws IOException {
+        waitForPendingCompaction();
+        recoverInterruptedCompaction();
+
+        List<Book> books;
+        int[] titleOrder = null;
+        BookSnapshot snapshot = readSnapshot();
+        if (snapshot != null) {
+            books = new ArrayList<>(snapshot.getBooks());
+            titleOrder = snapshot.getTitleOrder();
+            System.out.println("Books loaded successfully from snapshot.");
+        } else {
+            books = new ArrayList<>();
+            try (BookRecordReader reader = BookRecordReader.open(fileName, FileCatalogStore::reportInvalidEntry)) {
+                Book book;
+                while ((book = reader.next()) != null) {
+                    books.add(book);
+                }
+                System.out.println("Books loaded successfully from file.");
+                writeBinarySnapshot(fileName, books);
+            } catch (IOException e) {
+                System.out.println("Error loading books from file: " + e.getMessage());
+            }
+        }
+
+        JournalReplay replay = new JournalReplay(books);
+        try {
+            int replayed = BookJournal.replay(rotatedJournalPath(), replay::apply)
+                    + BookJournal.replay(journalPath(), replay::apply);
+            if (replayed > 0) {
+                System.out.println("Replayed " + replayed + " journal records.");
+            }
+        } catch (IOException e) {
+            System.out.println("Error replaying journal: " + e.getMessage());
+        }
+        if (replay.finish()) {
+            titleOrder = null; // books were added or removed, so the positions moved
+        }
+        return new Contents(books, titleOrder);
+    }
+
+    /**
+     * Method to save changes: one journal write in journaled mode, otherwise a rewrite of the file.
+     */
+    @Override
+    public void write(List<CatalogChange> changes, List<Book> books) throws IOException {
+        if (journal == null) {
+            writeAll(books);
+            return;
+        }
+        if (changes.size() == 1) {
+            CatalogChange change = changes.get(0);
+            journal.append(recordType(change), recordPayload(change));
+        } else {
+            List<String> records = new ArrayList<>(changes.size());
+            for (CatalogChange change : changes) {
+                records.add(recordType(change) + "," + recordPayload(change));
+            }
+            journal.appendAll(records);
+        }
+        maybeCompact(books);
+    }
+
+    /**
+     * Method to write the whole file; in journaled mode this compacts the journal into it.
+     */
+    @Override
+    public void writeAll(List<Book> books) throws IOException {
+        if (journal != null) {
+            compactJournal(books);
+            return;
+        }
+        writeBooks(books, Path.of(fileName));
+        // Any journal left by a journaled session has now been folded into the file
+        Files.deleteIfExists(journalPath());
+        Files.deleteIfExists(rotatedJournalPath());
+    }
+
+    /**
+     * Method to fold the journal into the file, if there is one. Without a journal the file
+     * is already current.
+     */
+    @Override
+    public void checkpoint(List<Book> books) throws IOException {
+        if (journal != null) {
+            compactJournal(books);
+        }
+    }
+
+    /**
+     * Method to close the journal and return to full-file writes. Records not yet compacted
+     * stay in the journal and are replayed by the next load().
+     */
+    @Override
+    public void close() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        waitForPendingCompaction();
+        compactor.shutdown();
+        try {
+            journal.close();
+        } finally {
+            journal = null;
+        }
+    }
+
+    /**
+     * Method to switch to journaled writes. The file must be current, because the journal
+     * is replayed on top of it.
+     * @param syncEvery Number of journal records per fsync; 1 syncs every write, 0 never forces.
+     * @param compactIntervalSeconds How often the journal is compacted into the books file.
+     * @throws IOException If the journal cannot be opened.
+     */
+    public void enableJournal(int syncEvery, long compactIntervalSeconds) throws IOException {
+        if (journal != null) {
+            return;
+        }
+        journal = new BookJournal(journalPath(), syncEvery);
+        compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "library-journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // The timer only flags that a compaction is due; the snapshot itself is taken on
+        // the next write so the book list is never read while another thread changes it.
+        compactor.scheduleAtFixedRate(() -> compactionDue = true,
+                compactIntervalSeconds, compactIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Getter method for whether changes go to the journal.
+     * @return true after enableJournal() until close().
+     */
+    public boolean isJournaled() {
+        return journal != null;
+    }
+
+    /**
+     * Method to report a line of a books file that could not be parsed: it is counted as
+     * library.invalid_entries in Metrics and logged as a warning.
+     * @param lineNumber The 1-based line number.
+     * @param reason Why the line was skipped.
+     */
+    static void reportInvalidEntry(long lineNumber, String reason) {
+        INVALID_ENTRIES.increment();
+        LOG.log(System.Logger.Level.WARNING, () -> "Invalid book entry at line " + lineNumber + ": " + reason);
+    }
+
+    private static void reportInvalidRecord(String record) {
+        INVALID_ENTRIES.increment();
+        LOG.log(System.Logger.Level.WARNING, () -> "Skipping invalid journal record: " + record);
+    }
+
+    private BookSnapshot readSnapshot() {
+        try {
+            return BookSnapshot.readIfCurrent(Path.of(fileName));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.out.println("Error reading snapshot, loading the text file instead: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // The binary snapshot only speeds up the next start, so failing to write it is not fatal
+    private static void writeBinarySnapshot(String fileName, List<Book> books) {
+        try {
+            BookSnapshot.write(Path.of(fileName), books);
+        } catch (IOException e) {
+            System.out.println("Error writing snapshot: " + e.getMessage());
+        }
+    }
+
+    private Path journalPath() {
+        return Path.of(fileName + ".journal");
+    }
+
+    private Path rotatedJournalPath() {
+        return Path.of(fileName + ".journal.old");
+    }
+
+    private Path compactedPath() {
+        return Path.of(fileName + ".compacted");
+    }
+
+    private static String recordType(CatalogChange change) {
+        switch (change.getType()) {
+            case ADD:
+                return BookJournal.ADD;
+            case REMOVE:
+                return BookJournal.REMOVE;
+            case CHECK_OUT:
+                return BookJournal.CHECKOUT;
+            default:
+                return BookJournal.CHECKIN;
+        }
+    }
+
+    private static String recordPayload(CatalogChange change) {
+        Book book = change.getBook();
+        if (change.getType() == CatalogChange.Type.ADD) {
+            return book.toFileString();
+        }
+        return BookJournal.copyPayload(book, change.getCheckoutDate(), change.getDueDate());
+    }
+
+    /**
+     * Method to start a background compaction when the interval has passed or the
+     * journal has grown large. The journal is rotated and the book list copied on the
+     * calling thread; only the file writing happens on the compactor thread.
+     */
+    private void maybeCompact(List<Book> books) throws IOException {
+        if (!compactionDue && journal.size() < JOURNAL_COMPACT_BYTES) {
+            return;
+        }
+        if (pendingCompaction != null && !pendingCompaction.isDone()) {
+            return;
+        }
+        compactionDue = false;
+        journal.rotate(rotatedJournalPath());
+        List<Book> snapshot = new ArrayList<>(books);
+        pendingCompaction = compactor.submit(() -> {
+            try {
+                writeCompactedSnapshot(fileName, snapshot);
+            } catch (IOException e) {
+                System.out.println("Error compacting journal: " + e.getMessage());
+            }
+        });
+    }
+
+    private void compactJournal(List<Book> books) throws IOException {
+        waitForPendingCompaction();
+        journal.rotate(rotatedJournalPath());
+        writeCompactedSnapshot(fileName, new ArrayList<>(books));
+    }
+
+    /**
+     * Method to replace the books file with a snapshot that already contains every
+     * rotated journal record (shared with ConcurrentLibrary). The snapshot is renamed to
+     * "fileName.compacted" before the rotated journal is deleted, so a crash at any point
+     * leaves either the old file plus its journal or a complete compacted file (see
+     * recoverInterruptedCompaction). The binary snapshot is refreshed last; until then it
+     * no longer matches the file and is ignored.
+     * @param fileName The books file.
+     * @param snapshot Every book, including the effects of the rotated journal.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    static void writeCompactedSnapshot(String fileName, List<Book> snapshot) throws IOException {
+        Path compacted = Path.of(fileName + ".compacted");
+        writeBooks(snapshot, compacted);
+        Files.deleteIfExists(Path.of(fileName + ".journal.old"));
+        Files.move(compacted, Path.of(fileName), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        writeBinarySnapshot(fileName, snapshot);
+    }
+
+    private void recoverInterruptedCompaction() throws IOException {
+        if (Files.exists(compactedPath())) {
+            Files.deleteIfExists(rotatedJournalPath());
+            Files.move(compactedPath(), Path.of(fileName), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private void waitForPendingCompaction() {
+        if (pendingCompaction == null) {
+            return;
+        }
+        try {
+            pendingCompaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("Error compacting journal: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Method to write books to a temporary file, force it to disk and move it over the target.
+     */
+    private static void writeBooks(List<Book> snapshot, Path target) throws IOException {
+        Path temp = Path.of(target + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, Charset.defaultCharset()))) {
+            for (Book book : snapshot) {
+                writer.write(book.toFileString());
+                writer.newLine();
+            }
+            writer.flush();
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Applies journal records to the loaded books. Checkout and checkin records set absolute
+     * state, so replaying them is idempotent. Removed books are dropped from the list in one
+     * pass at the end. Copies can share an ID and barcode, so a record goes to a copy in the
+     * state it had before the change: an available copy for a checkout, a checked-out copy
+     * with the recorded dates for a checkin, a copy with the recorded dates for a removal.
+     * Copies that match the same way are identical, so it does not matter which one is picked.
+     */
+    private static final class JournalReplay {
+        private final List<Book> books;
+        private Map<String, List<Book>> booksByBarcode;
+        private final Set<Book> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        // One parser for every ADD record, so its author pool is shared too
+        private final BookRecordParser parser = new BookRecordParser(null);
+        private boolean added;
+
+        JournalReplay(List<Book> books) {
+            this.books = books;
+        }
+
+        void apply(String record) {
+            String[] parts = record.split(",", 2);
+            try {
+                if (parts[0].equals(BookJournal.ADD)) {
+                    Book book = parseBookLine(parts[1]);
+                    if (book != null) {
+                        books.add(book);
+                        if (booksByBarcode != null) {
+                            booksByBarcode.computeIfAbsent(book.getBarcode(), key -> new ArrayList<>(1)).add(book);
+                        }
+                        added = true;
+                    } else {
+                        reportInvalidRecord(record);
+                    }
+                    return;
+                }
+                String[] fields = parts[1].split(",");
+                Book book = find(parts[0], fields);
+                if (book == null) {
+                    return;
+                }
+                switch (parts[0]) {
+                    case BookJournal.REMOVE:
+                        removed.add(book);
+                        booksByBarcode.get(book.getBarcode()).remove(book);
+                        break;
+                    case BookJournal.CHECKOUT:
+                        book.setAvailable(false);
+                        book.setCheckoutDate(LocalDate.parse(fields[2]));
+                        book.setDueDate(LocalDate.parse(fields[3]));
+                        break;
+                    case BookJournal.CHECKIN:
+                        book.setAvailable(true);
+                        book.setCheckoutDate(null);
+                        book.setDueDate(null);
+                        break;
+                    default:
+                        reportInvalidRecord(record);
+                }
+            } catch (ArrayIndexOutOfBoundsException | NumberFormatException | DateTimeParseException e) {
+                reportInvalidRecord(record);
+            }
+        }
+
+        /**
+         * Method to drop the removed books.
+         * @return true if books were added or removed.
+         */
+        boolean finish() {
+            if (!removed.isEmpty()) {
+                books.removeIf(removed::contains);
+            }
+            return added || !removed.isEmpty();
+        }
+
+        // The barcode map is only built if a record needs it
+        private Book find(String type, String[] fields) {
+            int id = Integer.parseInt(fields[0]);
+            if (booksByBarcode == null) {
+                booksByBarcode = new HashMap<>();
+                for (Book book : books) {
+                    if (!removed.contains(book)) {
+                        booksByBarcode.computeIfAbsent(book.getBarcode(), key -> new ArrayList<>(1)).add(book);
+                    }
+                }
+            }
+            Book sameIdentity = null;
+            List<Book> candidates = booksByBarcode.get(fields[1]);
+            if (candidates != null) {
+                for (Book book : candidates) {
+                    if (book.getId() != id) {
+                        continue;
+                    }
+                    if (hasPriorState(type, book, fields)) {
+                        return book;
+                    }
+                    if (sameIdentity == null) {
+                        sameIdentity = book;
+                    }
+                }
+            }
+            // Records written before the dates were added, or a copy changed by hand since
+            return sameIdentity;
+        }
+
+        private static boolean hasPriorState(String type, Book book, String[] fields) {
+            switch (type) {
+                case BookJournal.CHECKOUT:
+                    return book.isAvailable();
+                case BookJournal.CHECKIN:
+                    return !book.isAvailable() && hasDates(book, fields);
+                default:
+                    return hasDates(book, fields);
+            }
+        }
+
+        private static boolean hasDates(Book book, String[] fields) {
+            return fields.length >= 4
+                    && String.valueOf(book.getCheckoutDate()).equals(fields[2])
+                    && String.valueOf(book.getDueDate()).equals(fields[3]);
+        }
+
+        private Book parseBookLine(String line) {
+            byte[] bytes = line.getBytes(Charset.defaultCharset());
+            return parser.parseLine(ByteBuffer.wrap(bytes), 0, bytes.length, 1);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package catalog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: InMemoryCatalogStore
+ * Description: CatalogStore that keeps the books in memory only, for tests and for measuring
+ * Library without any I/O. It shares the Book objects with the Library, so checkouts need no
+ * work; adds and removes keep its own set in step, so a reload sees them. Nothing outlives
+ * the process.
+ */
+public class InMemoryCatalogStore implements CatalogStore {
+    // Books compare by identity, so the set keeps each copy once, in the order added
+    private final Set<Book> books;
+
+    /**
+     * Constructor for the InMemoryCatalogStore class.
+     * @param books The books the store starts with.
+     */
+    public InMemoryCatalogStore(Collection<Book> books) {
+        this.books = new LinkedHashSet<>(books);
+    }
+
+    /**
+     * Method to create a store holding the books of a books file. The file is only read.
+     * @param fileName The books file; if it does not exist the store starts empty.
+     * @return The store.
+     * @throws IOException If the file cannot be read.
+     */
+    public static InMemoryCatalogStore copyOf(String fileName) throws IOException {
+        List<Book> books = new ArrayList<>();
+        if (Files.exists(Path.of(fileName))) {
+            try (BookRecordReader reader = BookRecordReader.open(fileName, FileCatalogStore::reportInvalidEntry)) {
+                Book book;
+                while ((book = reader.next()) != null) {
+                    books.add(book);
+                }
+            }
+        }
+        return new InMemoryCatalogStore(books);
+    }
+
+    @Override
+    public String getName() {
+        return MEMORY;
+    }
+
+    @Override
+    public Contents load() {
+        return new Contents(new ArrayList<>(books), null);
+    }
+
+    @Override
+    public void write(List<CatalogChange> changes, List<Book> current) {
+        for (CatalogChange change : changes) {
+            if (change.getType() == CatalogChange.Type.ADD) {
+                books.add(change.getBook());
+            } else if (change.getType() == CatalogChange.Type.REMOVE) {
+                books.remove(change.getBook());
+            }
+        }
+    }
+
+    @Override
+    public void writeAll(List<Book> current) {
+        books.clear();
+        books.addAll(current);
+    }
+
+    @Override
+    public void checkpoint(List<Book> current) {
+    }
+
+    @Override
+    public void close() {
+    }
+}
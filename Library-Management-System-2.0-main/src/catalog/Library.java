@@ -0,0 +1,1164 @@
+package catalog;
+
+import java.io.*;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import metrics.LibraryEvents;
+import metrics.Metrics;
+import metrics.Timer;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Date: March 24, 2024
+ * Class Name: Library
+ * Description: Manages the library system, including adding,
+ * removing, listing, and checking in/out books.
+ * The books and their indexes are held in memory; a CatalogStore (the books file, an
+ * SQLite database or memory only) loads them and saves every change. If the store cannot
+ * save a change (e.g. another program changed the same row of the database), the books are
+ * reloaded from the store, so the library never keeps changes the store refused, and the
+ * method that made the change reports it (null, false or 0).
+ */
+
+public class Library {
+    // Latency of each kind of operation, for Metrics.render() and flight recordings
+    private static final Timer LOOKUP = Metrics.timer("library.lookup", LibraryEvents.Lookup::new);
+    private static final Timer SEARCH = Metrics.timer("library.search", LibraryEvents.Search::new);
+    private static final Timer CHECKOUT = Metrics.timer("library.checkout", LibraryEvents.Checkout::new);
+    private static final Timer CHECKIN = Metrics.timer("library.checkin", LibraryEvents.Checkin::new);
+    private static final Timer ADD = Metrics.timer("library.add", LibraryEvents.Add::new);
+    private static final Timer REMOVE = Metrics.timer("library.remove", LibraryEvents.Remove::new);
+    private static final Timer LOAD = Metrics.timer("library.load", LibraryEvents.Load::new);
+    private static final Timer SAVE = Metrics.timer("library.save", LibraryEvents.Save::new);
+
+    private final ArrayList<Book> books;
+    // Books removed since the list was last compacted. They stay in the list until something
+    // reads it, so a removal does not scan and shift the whole list.
+    private final Set<Book> removedBooks = Collections.newSetFromMap(new IdentityHashMap<>());
+    // The books in saved order without the removed ones; what getBooks() and the store see
+    private final List<Book> bookList = new BookList();
+    private final CatalogStore store;
+
+    // Secondary indexes kept in step with the books list so lookups don't scan it.
+    // Buckets are lists because the data files may contain several rows with the same barcode or ID.
+    // The ID, title and due date indexes are sorted, so they also give ordered views of the
+    // books without sorting (or reordering) the list that is saved to the file.
+    private final Map<String, List<Book>> booksByBarcode = new HashMap<>();
+    private final NavigableMap<Integer, List<Book>> booksById = new TreeMap<>();
+    // One holdings record per normalized title: its copies and which of them are on the shelf
+    private final NavigableMap<String, TitleHoldings> booksByTitle = new TreeMap<>();
+    // Only checked out books that have a due date
+    private final NavigableMap<LocalDate, List<Book>> checkedOutByDueDate = new TreeMap<>();
+    // Normalized titles with at least one copy checked out, for check-in title completion
+    private final NavigableSet<String> titlesCheckedOut = new TreeSet<>();
+    // Word index for searchBooks(); built on the first search, then kept up to date
+    private TitleSearchIndex searchIndex;
+
+    // Deferred persistence (see beginBatch and setWriteBehind): changes not yet written to the store
+    private int batchDepth;
+    private boolean writeBehind;
+    private final List<CatalogChange> pendingChanges = new ArrayList<>();
+
+    /*
+     * Constructor for the Library class.
+     * @param fileName The name of the file containing book data.
+     */
+    public Library(String fileName) {
+        this(new FileCatalogStore(fileName));
+    }
+
+    /**
+     * Constructor for the Library class on any store. The books are loaded right away.
+     * @param store Where the books are loaded from and saved to.
+     */
+    public Library(CatalogStore store) {
+        this.books = new ArrayList<>();
+        this.store = store;
+        reload();
+    }
+
+    /**
+     * Getter method for the store the library loads from and saves to.
+     * @return The store.
+     */
+    public CatalogStore getStore() {
+        return store;
+    }
+
+    /**
+     * Method to add a book to the library.
+     * @param book The book to be added.
+     * @return false if the book could not be saved, and is not in the library.
+     */
+    public boolean addBook(Book book) {
+        long start = ADD.start();
+        try {
+            if (removedBooks.contains(book)) {
+                compactBooks(); // the copy being added back is still in the list
+            }
+            books.add(book); // Add the book to the list
+            indexBook(book);
+            return persist(CatalogChange.added(book)); // Save the new book
+        } finally {
+            ADD.stop(start);
+        }
+    }
+    /**
+     * Method to add books from a file to the library.
+     * The books are added and saved in one step, as addBooksFromFileInParallel does.
+     * @param filePath The path of the file containing book data.
+     */
+    public void addBooksFromFile(String filePath) {
+        List<Book> newBooks = new ArrayList<>();
+        try (BookRecordReader reader = BookRecordReader.open(filePath, FileCatalogStore::reportInvalidEntry)) {
+            Book book;
+            while ((book = reader.next()) != null) {
+                newBooks.add(book);
+            }
+        } catch (IOException e) {
+            System.out.println("Error adding books from file: " + e.getMessage());
+            return;
+        }
+        reportAdded(filePath, addAll(newBooks));
+    }
+
+    /**
+     * Method to add books from a file using a parallel, memory-mapped import.
+     * The file is parsed on the common fork-join pool and merged in one step.
+     * @param filePath The path of the file containing book data.
+     * @param progress Receives progress from the parsing threads; may be null.
+     */
+    public void addBooksFromFileInParallel(String filePath, ParallelBookImporter.ProgressListener progress) {
+        try {
+            ParallelBookImporter.Result result = new ParallelBookImporter()
+                    .importFile(Path.of(filePath), progress, FileCatalogStore::reportInvalidEntry);
+            reportAdded(filePath, addAll(result.getBooks()));
+        } catch (IOException e) {
+            System.out.println("Error adding books from file: " + e.getMessage());
+        }
+    }
+
+    private static void reportAdded(String filePath, boolean saved) {
+        if (saved) {
+            System.out.println("Books added successfully from file: " + filePath);
+        } else {
+            System.out.println("Error adding books from file: the books could not be saved, so none were added.");
+        }
+    }
+
+    /**
+     * Method to add many books in one step.
+     * The library is saved once, instead of once per book.
+     * @param newBooks The books to be added.
+     * @return false if the books could not be saved, and none of them are in the library.
+     */
+    public boolean addAll(Collection<Book> newBooks) {
+        long start = ADD.start();
+        boolean saved = false;
+        beginBatch();
+        try {
+            compactBooks();
+            books.ensureCapacity(books.size() + newBooks.size());
+            books.addAll(newBooks);
+            for (Book book : newBooks) {
+                indexBook(book);
+                persist(CatalogChange.added(book));
+            }
+        } finally {
+            saved = commitBatch();
+            ADD.stop(start);
+        }
+        return saved;
+    }
+
+    /**
+     * Method to remove many books by barcode in one batch, saved once at the end.
+     * @param barcodes The barcodes of the books to remove; each removes one copy.
+     * @return The number of books removed; 0 if the removals could not be saved.
+     */
+    public int removeAllByBarcode(Collection<String> barcodes) {
+        long start = REMOVE.start();
+        int removed = 0;
+        boolean saved = false;
+        beginBatch();
+        try {
+            for (String barcode : barcodes) {
+                Book book = first(booksByBarcode.get(barcode));
+                if (book != null) {
+                    dropBook(book);
+                    removed++;
+                }
+            }
+        } finally {
+            saved = commitBatch();
+            REMOVE.stop(start);
+        }
+        return saved ? removed : 0;
+    }
+
+    /**
+     * Method to check in many books by title in one batch, saved once at the end.
+     * @param titles The titles of the books to check in; each checks in one copy.
+     * @return The number of books checked in; 0 if the check-ins could not be saved.
+     */
+    public int checkInAll(Collection<String> titles) {
+        int checkedIn = 0;
+        boolean saved = false;
+        beginBatch();
+        try {
+            for (String title : titles) {
+                if (checkInBook(title)) {
+                    checkedIn++;
+                }
+            }
+        } finally {
+            saved = commitBatch();
+        }
+        return saved ? checkedIn : 0;
+    }
+
+    /**
+     * Method to start a batch of changes. Until the matching commitBatch() the changes are
+     * only made in memory; commitBatch() then saves them with one store write (one file write,
+     * one journal write and sync, or one transaction). Batches may be nested; only the
+     * outermost commit saves.
+     */
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    /**
+     * Method to end a batch of changes started with beginBatch() and save them.
+     * @return false if the changes could not be saved (see flush()); true otherwise,
+     *         including for a nested batch, which saves nothing yet.
+     */
+    public boolean commitBatch() {
+        if (batchDepth == 0) {
+            throw new IllegalStateException("commitBatch() without beginBatch()");
+        }
+        batchDepth--;
+        if (batchDepth == 0 && !writeBehind) {
+            return flush();
+        }
+        return true;
+    }
+
+    /**
+     * Method to turn write-behind on or off. With write-behind, changes outside a batch are
+     * also kept in memory until flush() is called, so many quick changes are saved together
+     * (LibraryOperations.enableWriteBehind calls flush() shortly after the first change).
+     * Turning it off saves any waiting changes.
+     * @param enabled true to defer saving until flush().
+     */
+    public void setWriteBehind(boolean enabled) {
+        writeBehind = enabled;
+        if (!enabled && batchDepth == 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Method to tell whether there are changes that have not been saved yet.
+     * @return true if a flush() would write something.
+     */
+    public boolean hasPendingChanges() {
+        return !pendingChanges.isEmpty();
+    }
+
+    /**
+     * Method to save the changes held back by a batch or by write-behind, with one store write.
+     * If the write fails the changes are dropped and the books reloaded from the store, so
+     * one change the store refuses does not hold back every later one.
+     * @return false if the changes could not be saved.
+     */
+    public boolean flush() {
+        if (pendingChanges.isEmpty()) {
+            return true;
+        }
+        List<CatalogChange> changes = new ArrayList<>(pendingChanges);
+        pendingChanges.clear();
+        return writeToStore(changes);
+    }
+
+    /**
+     * Method to remove a book from the library by its barcode.
+     * @param barcode The barcode of the book to be removed.
+     */
+    public void removeBookByBarcode(String barcode) {
+        Book book = findBookByBarcode(barcode);
+        if (book == null) {
+            System.out.println("Book with barcode " + barcode + " not found.");
+        } else if (removeBook(book)) {
+            System.out.println("Book with barcode " + barcode + " has been removed.");
+        } else {
+            System.out.println("Book with barcode " + barcode + " could not be removed.");
+        }
+    }
+
+    /**
+     * Method to remove a book from the library by its title.
+     * @param title The title of the book to be removed.
+     */
+    public void removeBookByTitle(String title) {
+        Book book = findBookByTitle(title);
+        if (book == null) {
+            System.out.println("Book with title '" + title + "' not found.");
+        } else if (removeBook(book)) {
+            System.out.println("Book with title '" + title + "' has been removed.");
+        } else {
+            System.out.println("Book with title '" + title + "' could not be removed.");
+        }
+    }
+
+    /**
+     * Method to remove a specific book instance from the library.
+     * @param book The book to be removed.
+     * @return true if the book was in the library and its removal has been saved.
+     */
+    public boolean removeBook(Book book) {
+        long start = REMOVE.start();
+        try {
+            if (!contains(book)) {
+                return false;
+            }
+            return dropBook(book);
+        } finally {
+            REMOVE.stop(start);
+        }
+    }
+
+    // Every book in the library is in the barcode index, so this finds it without scanning the list
+    private boolean contains(Book book) {
+        List<Book> bucket = booksByBarcode.get(book.getBarcode());
+        if (bucket != null) {
+            for (Book candidate : bucket) {
+                if (candidate == book) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean dropBook(Book book) {
+        removedBooks.add(book);
+        unindexBook(book);
+        boolean saved = persist(CatalogChange.removed(book)); // Save changes after removing a book
+        // Keep the removed books from holding more than half of the list
+        if (removedBooks.size() > books.size() / 2) {
+            compactBooks();
+        }
+        return saved;
+    }
+
+    /**
+     * Method to drop the removed books from the list, in one pass.
+     */
+    private void compactBooks() {
+        if (!removedBooks.isEmpty()) {
+            books.removeIf(removedBooks::contains);
+            removedBooks.clear();
+        }
+    }
+
+
+    /**
+     * Method to display all books in the library.
+     */
+    public void listAllBooks() {
+        System.out.println("Listing all books:");
+        for (Book book : bookList) {
+            System.out.println(book);
+        }
+    }
+
+    /**
+     * Method to display the contents of the database.
+     */
+    public void displayDatabase() {
+        System.out.println("Displaying contents of the database:");
+        for (Book book : bookList) {
+            System.out.println(book);
+        }
+    }
+
+
+    /**
+     * Method to save every book to the store, replacing what it holds. The books file is
+     * written to a temporary file first and moved into place, so a crash part-way through
+     * never truncates the existing data; in journaled mode this also compacts the journal
+     * into the file.
+     */
+    public void saveBooksToFile() {
+        long start = SAVE.start();
+        // The whole list is written, so nothing deferred is left to save
+        pendingChanges.clear();
+        try {
+            store.writeAll(bookList);
+            System.out.println("Books saved successfully to " + store.getName() + ".");
+        } catch (IOException e) {
+            System.out.println("Error saving books: " + e.getMessage());
+        } finally {
+            SAVE.stop(start);
+        }
+    }
+
+    /**
+     * Method to switch a library on the books file to journaled persistence.
+     * Each mutation then appends one record to "fileName.journal" instead of rewriting
+     * the file, and a background compactor periodically folds the journal into a fresh
+     * copy of the file. Any existing journal was already replayed when the file was loaded.
+     * Other stores already save each change on its own, and ignore this.
+     * @param syncEvery Number of journal records per fsync; 1 syncs every mutation, 0 never forces.
+     * @param compactIntervalSeconds How often the journal is compacted into the books file.
+     */
+    public void enableJournal(int syncEvery, long compactIntervalSeconds) {
+        if (!(store instanceof FileCatalogStore)) {
+            return;
+        }
+        flush(); // the journal is replayed on top of the file, so the file must be current
+        try {
+            ((FileCatalogStore) store).enableJournal(syncEvery, compactIntervalSeconds);
+        } catch (IOException e) {
+            System.out.println("Error opening journal, saving the full file instead: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Method to compact and close the journal, returning to full-file saves.
+     */
+    public void closeJournal() {
+        if (!(store instanceof FileCatalogStore) || !((FileCatalogStore) store).isJournaled()) {
+            return;
+        }
+        saveBooksToFile();
+        closeStore();
+    }
+
+    /**
+     * Method to save any waiting changes, bring the store up to date (folding the journal
+     * into the books file) and close it. A library on the books file can still be used
+     * afterwards, with full-file saves; other stores cannot.
+     */
+    public void close() {
+        flush();
+        try {
+            store.checkpoint(bookList);
+        } catch (IOException e) {
+            System.out.println("Error saving books: " + e.getMessage());
+        }
+        closeStore();
+    }
+
+    private void closeStore() {
+        try {
+            store.close();
+        } catch (IOException e) {
+            System.out.println("Error closing " + store.getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Method to reload the books if another program changed the store since they were loaded
+     * (see CatalogStore.hasExternalChanges()), e.g. JDBC_GUI and a server sharing LMSlibrary.db.
+     * Waiting changes are saved first. Nothing happens inside a batch.
+     * @return true if the books were reloaded.
+     */
+    public boolean reloadIfChangedElsewhere() {
+        if (batchDepth > 0) {
+            return false;
+        }
+        try {
+            if (!store.hasExternalChanges()) {
+                return false;
+            }
+        } catch (IOException e) {
+            System.out.println("Error checking " + store.getName() + " for changes: " + e.getMessage());
+            return false;
+        }
+        flush(); // a change the other program conflicts with is refused here and reloaded anyway
+        reload();
+        return true;
+    }
+
+    /**
+     * Method to replace the books with those in the store. Changes not saved yet are dropped.
+     */
+    public void reload() {
+        long start = LOAD.start();
+        try {
+            CatalogStore.Contents contents = store.load();
+            pendingChanges.clear();
+            replaceBooks(contents.getBooks(), contents.getTitleOrder());
+        } catch (IOException e) {
+            System.out.println("Error loading books: " + e.getMessage());
+        } finally {
+            LOAD.stop(start);
+        }
+    }
+
+    /**
+     * Method to load books from a file into the library, replacing the books it has.
+     * Loading the library's own books file reloads it from the store (see reload());
+     * any other file is only read, and nothing is saved until the next change or save.
+     * @param fileName The name of the file containing book data.
+     */
+    public void loadBooksFromFile(String fileName) {
+        if (store instanceof FileCatalogStore && fileName.equals(store.getName())) {
+            reload();
+            return;
+        }
+        long start = LOAD.start();
+        try (BookRecordReader reader = BookRecordReader.open(fileName, FileCatalogStore::reportInvalidEntry)) {
+            List<Book> loaded = new ArrayList<>();
+            Book book;
+            while ((book = reader.next()) != null) {
+                loaded.add(book);
+            }
+            replaceBooks(loaded, null);
+            System.out.println("Books loaded successfully from file.");
+        } catch (IOException e) {
+            System.out.println("Error loading books from file: " + e.getMessage());
+        } finally {
+            LOAD.stop(start);
+        }
+    }
+
+    /**
+     * Method to replace the books and rebuild the indexes.
+     * @param loaded The new books.
+     * @param titleOrder Positions in loaded in normalized title order, or null if not known.
+     */
+    private void replaceBooks(List<Book> loaded, int[] titleOrder) {
+        books.clear();
+        removedBooks.clear();
+        clearIndexes();
+        books.ensureCapacity(loaded.size());
+        books.addAll(loaded);
+        if (titleOrder == null) {
+            for (Book book : books) {
+                indexBook(book);
+            }
+            return;
+        }
+        for (Book book : books) {
+            indexBookExceptTitle(book);
+        }
+        // Filling the title index in key order costs much less than inserting in file order
+        for (int position : titleOrder) {
+            Book book = books.get(position);
+            booksByTitle.computeIfAbsent(normalizeTitle(book.getTitle()), key -> new TitleHoldings()).addCopy(book);
+        }
+    }
+
+    /**
+     * Method to find a book by its title.
+     * @param title The title of the book to be found.
+     * @return The book with the specified title, or null if not found.
+     */
+    public Book findBookByTitle(String title) {
+        long start = LOOKUP.start();
+        try {
+            TitleHoldings holdings = booksByTitle.get(normalizeTitle(title));
+            if (holdings != null) {
+                for (Book book : holdings) {
+                    if (book.getTitle().equals(title)) {
+                        return book;
+                    }
+                }
+            }
+            return null;
+        } finally {
+            LOOKUP.stop(start);
+        }
+    }
+
+    /**
+     * Method to find the copies held of a title and how many of them are available.
+     * @param title The title; case and surrounding whitespace are ignored.
+     * @return The holdings of the title, or null if the library has no copy of it.
+     */
+    public TitleHoldings findHoldings(String title) {
+        long start = LOOKUP.start();
+        try {
+            return booksByTitle.get(normalizeTitle(title));
+        } finally {
+            LOOKUP.stop(start);
+        }
+    }
+
+    /**
+     * Method to count the copies of a title that are on the shelf.
+     * @param title The title; case and surrounding whitespace are ignored.
+     * @return The number of available copies, 0 if the title is not held.
+     */
+    public int getAvailableCopies(String title) {
+        TitleHoldings holdings = findHoldings(title);
+        return holdings == null ? 0 : holdings.getAvailableCount();
+    }
+
+    /**
+     * Method to count the copies held of a title.
+     * @param title The title; case and surrounding whitespace are ignored.
+     * @return The number of copies, checked out or not, 0 if the title is not held.
+     */
+    public int getTotalCopies(String title) {
+        TitleHoldings holdings = findHoldings(title);
+        return holdings == null ? 0 : holdings.getCopyCount();
+    }
+
+    /**
+     * Method to find a book by its title, ignoring case and surrounding whitespace.
+     * @param title The title of the book to be found.
+     * @return The first book whose normalized title matches, or null if not found.
+     */
+    public Book findBookByTitleIgnoreCase(String title) {
+        long start = LOOKUP.start();
+        try {
+            return first(booksByTitle.get(normalizeTitle(title)));
+        } finally {
+            LOOKUP.stop(start);
+        }
+    }
+
+    /**
+     * Method to find a book by its barcode.
+     * @param barcode The barcode of the book to be found.
+     * @return The book with the specified barcode, or null if not found.
+     */
+    public Book findBookByBarcode(String barcode) {
+        long start = LOOKUP.start();
+        try {
+            return first(booksByBarcode.get(barcode));
+        } finally {
+            LOOKUP.stop(start);
+        }
+    }
+
+    /**
+     * Method to find a book by its ID.
+     * @param id The ID of the book to be found.
+     * @return The book with the specified ID, or null if not found.
+     */
+    public Book findBookById(int id) {
+        long start = LOOKUP.start();
+        try {
+            return first(booksById.get(id));
+        } finally {
+            LOOKUP.stop(start);
+        }
+    }
+
+    /**
+     * Method to check out a book from the library.
+     * Any available copy of the title is taken from its holdings, without a scan.
+     * @param title The title of the book to be checked out; case and surrounding whitespace are ignored.
+     * @return The checked out copy, or null if not found or no copy is available.
+     */
+    public Book checkOutBook(String title) {
+        long start = CHECKOUT.start();
+        try {
+            TitleHoldings holdings = booksByTitle.get(normalizeTitle(title));
+            Book book = holdings == null ? null : holdings.nextAvailable();
+            if (book != null) {
+                return checkOutCopy(book) ? book : null; // Return the checked-out book
+            } else if (holdings != null) {
+                System.out.println("Book '" + title + "' is not available for checkout.");
+            } else {
+                System.out.println("Book '" + title + "' not found.");
+            }
+            return null; // Return null if the book is not available for checkout or not found
+        } finally {
+            CHECKOUT.stop(start);
+        }
+    }
+
+    /**
+     * Method to check in a book to the library.
+     * One checked out copy of the title is returned to the shelf, without a scan.
+     * @param title The title of the book to be checked in; case and surrounding whitespace are ignored.
+     * @return true if a copy was checked in, false if not found or no copy is checked out.
+     */
+    public boolean checkInBook(String title) {
+        long start = CHECKIN.start();
+        try {
+            TitleHoldings holdings = booksByTitle.get(normalizeTitle(title));
+            Book book = holdings == null ? null : holdings.nextCheckedOut();
+            if (book != null && checkInCopy(book)) {
+                System.out.println("Book '" + title + "' checked in successfully.");
+                return true;
+            }
+            return false;
+        } finally {
+            CHECKIN.stop(start);
+        }
+    }
+
+    /**
+     * Method to check out the copy with a barcode, e.g. as scanned at a desk.
+     * @param barcode The barcode of the copy.
+     * @return The checked out copy, or null if no copy has the barcode, it is already checked
+     *         out or the checkout could not be saved.
+     */
+    public Book checkOutByBarcode(String barcode) {
+        long start = CHECKOUT.start();
+        try {
+            Book book = findCopyByBarcode(barcode, true);
+            return book != null && checkOutCopy(book) ? book : null;
+        } finally {
+            CHECKOUT.stop(start);
+        }
+    }
+
+    /**
+     * Method to check in the copy with a barcode, e.g. as scanned from the book drop.
+     * @param barcode The barcode of the copy.
+     * @return true if the copy was checked in, false if no copy has the barcode, it is not
+     *         checked out or the check-in could not be saved.
+     */
+    public boolean checkInByBarcode(String barcode) {
+        long start = CHECKIN.start();
+        try {
+            Book book = findCopyByBarcode(barcode, false);
+            return book != null && checkInCopy(book);
+        } finally {
+            CHECKIN.stop(start);
+        }
+    }
+
+    // A copy with the barcode that is (or is not) available; the data files may repeat a barcode
+    private Book findCopyByBarcode(String barcode, boolean available) {
+        List<Book> candidates = booksByBarcode.get(barcode);
+        if (candidates != null) {
+            for (Book book : candidates) {
+                if (book.isAvailable() == available) {
+                    return book;
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean checkOutCopy(Book book) {
+        LocalDate checkoutDate = LocalDate.now();
+        LocalDate dueDate = calculateDueDate(checkoutDate); // Calculate due date
+        markCheckedOut(book, checkoutDate, dueDate);
+        return persist(CatalogChange.checkedOut(book));
+    }
+
+    private boolean checkInCopy(Book book) {
+        CatalogChange change = CatalogChange.checkedIn(book); // before the dates are cleared
+        markCheckedIn(book);
+        return persist(change); // Save changes after checking in a book
+    }
+
+    /**
+     * Method to find the checked out books that are overdue, earliest due date first.
+     * Reads only the overdue part of the due date index, so the cost grows with the
+     * number of overdue books, not with the size of the catalog.
+     * @param today The current date; books due before it are overdue.
+     * @return The overdue books.
+     */
+    public List<Book> findOverdueBooks(LocalDate today) {
+        return collect(checkedOutByDueDate.headMap(today, false));
+    }
+
+    /**
+     * Method to find the checked out books due in the next days, earliest due date first.
+     * Like findOverdueBooks() only the matching part of the due date index is read.
+     * @param today The current date; books due today are included.
+     * @param days How many days ahead to look; 0 returns only the books due today.
+     * @return The books due from today up to and including today plus days.
+     * @throws IllegalArgumentException If days is negative.
+     */
+    public List<Book> findBooksDueWithin(LocalDate today, int days) {
+        if (days < 0) {
+            throw new IllegalArgumentException("days must not be negative");
+        }
+        return collect(checkedOutByDueDate.subMap(today, true, today.plusDays(days), true));
+    }
+
+    /**
+     * Method to find the earliest due date of a checked out book on or after a date.
+     * @param from The first date to consider, or null to start at the earliest due date.
+     * @return The due date, or null if no checked out book is due on or after it.
+     */
+    public LocalDate findNextDueDate(LocalDate from) {
+        if (checkedOutByDueDate.isEmpty()) {
+            return null;
+        }
+        return from == null ? checkedOutByDueDate.firstKey() : checkedOutByDueDate.ceilingKey(from);
+    }
+
+    /**
+     * Method to find the checked out books due on a date.
+     * @param dueDate The due date.
+     * @return The books due that day, in the order they were checked out or loaded.
+     */
+    public List<Book> findBooksDueOn(LocalDate dueDate) {
+        List<Book> bucket = checkedOutByDueDate.get(dueDate);
+        return bucket == null ? new ArrayList<>() : new ArrayList<>(bucket);
+    }
+
+    /**
+     * Method to complete a partly typed title, e.g. for the checkout and check-in pages.
+     * Only the part of the sorted title index that starts with the prefix is read, and
+     * reading stops once enough titles are found.
+     * @param prefix The start of the title; case and leading spaces are ignored.
+     * @param available true for titles with a copy on the shelf, false for titles with a copy checked out.
+     * @param limit The most titles to return.
+     * @return The matching titles in alphabetical order, each once, spelled as saved.
+     */
+    public List<String> completeTitles(String prefix, boolean available, int limit) {
+        String from = prefix == null ? "" : prefix.stripLeading().toLowerCase(Locale.ROOT);
+        String to = from + Character.MAX_VALUE;
+        List<String> titles = new ArrayList<>();
+        if (available) {
+            for (TitleHoldings holdings : booksByTitle.subMap(from, true, to, false).values()) {
+                if (titles.size() >= limit) {
+                    break;
+                }
+                Book book = holdings.nextAvailable();
+                if (book != null) {
+                    titles.add(book.getTitle());
+                }
+            }
+        } else {
+            for (String titleKey : titlesCheckedOut.subSet(from, true, to, false)) {
+                if (titles.size() >= limit) {
+                    break;
+                }
+                titles.add(booksByTitle.get(titleKey).nextCheckedOut().getTitle());
+            }
+        }
+        return titles;
+    }
+
+    /**
+     * Method to search titles and authors by words, e.g. "tolkien ring" or "catch".
+     * The last word may be partly typed. The word index is built on the first search.
+     * @param query The words to look for; case and punctuation are ignored.
+     * @param limit The maximum number of results.
+     * @return The books matching every word, best match first.
+     */
+    public List<Book> searchBooks(String query, int limit) {
+        long start = SEARCH.start();
+        try {
+            if (searchIndex == null) {
+                searchIndex = new TitleSearchIndex();
+                for (Book book : bookList) {
+                    searchIndex.add(book);
+                }
+            }
+            return searchIndex.search(query, limit);
+        } finally {
+            SEARCH.stop(start);
+        }
+    }
+
+    private static List<Book> collect(Map<LocalDate, List<Book>> range) {
+        List<Book> result = new ArrayList<>();
+        for (List<Book> bucket : range.values()) {
+            result.addAll(bucket);
+        }
+        return result;
+    }
+
+    /**
+     * Method to calculate the due date for checking out a book.
+     * @param checkoutDate The checkout date of the book.
+     * @return The due date of the book.
+     */
+    private LocalDate calculateDueDate(LocalDate checkoutDate) {
+        return checkoutDate.plusWeeks(4);
+    }
+
+    // Persistence
+
+    private boolean isDeferring() {
+        return batchDepth > 0 || writeBehind;
+    }
+
+    /**
+     * Method to record a mutation: it is written to the store at once, or inside a batch
+     * or with write-behind only noted, and written by flush().
+     * @return false if it was written at once and the store could not save it.
+     */
+    private boolean persist(CatalogChange change) {
+        if (isDeferring()) {
+            pendingChanges.add(change);
+            return true;
+        }
+        return writeToStore(List.of(change));
+    }
+
+    // Returns false if the store could not save the changes; the books are then reloaded from it
+    private boolean writeToStore(List<CatalogChange> changes) {
+        long start = SAVE.start();
+        try {
+            store.write(changes, bookList);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error saving changes, reloading the books from " + store.getName() + ": " + e.getMessage());
+        } finally {
+            SAVE.stop(start);
+        }
+        reload();
+        return false;
+    }
+
+    /**
+     * Method to normalize a title for index lookups (trimmed and lower case).
+     * @param title The title to normalize.
+     * @return The normalized title, or an empty string for null.
+     */
+    static String normalizeTitle(String title) {
+        return title == null ? "" : title.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Index maintenance
+
+    private void indexBook(Book book) {
+        booksByTitle.computeIfAbsent(normalizeTitle(book.getTitle()), key -> new TitleHoldings()).addCopy(book);
+        indexBookExceptTitle(book);
+    }
+
+    private void indexBookExceptTitle(Book book) {
+        booksByBarcode.computeIfAbsent(book.getBarcode(), key -> new ArrayList<>(1)).add(book);
+        booksById.computeIfAbsent(book.getId(), key -> new ArrayList<>(1)).add(book);
+        indexDueDate(book);
+        if (!book.isAvailable()) {
+            titlesCheckedOut.add(normalizeTitle(book.getTitle()));
+        }
+        if (searchIndex != null) {
+            searchIndex.add(book);
+        }
+    }
+
+    private void unindexBook(Book book) {
+        removeFromIndex(booksByBarcode, book.getBarcode(), book);
+        removeFromIndex(booksById, book.getId(), book);
+        String titleKey = normalizeTitle(book.getTitle());
+        TitleHoldings holdings = booksByTitle.get(titleKey);
+        if (holdings != null && holdings.removeCopy(book)) {
+            if (holdings.isEmpty()) {
+                booksByTitle.remove(titleKey);
+            }
+            if (holdings.nextCheckedOut() == null) {
+                titlesCheckedOut.remove(titleKey);
+            }
+        }
+        unindexDueDate(book);
+        if (searchIndex != null) {
+            searchIndex.remove(book);
+        }
+    }
+
+    private void indexDueDate(Book book) {
+        if (!book.isAvailable() && book.getDueDate() != null) {
+            checkedOutByDueDate.computeIfAbsent(book.getDueDate(), key -> new ArrayList<>(1)).add(book);
+        }
+    }
+
+    private void unindexDueDate(Book book) {
+        if (book.getDueDate() != null) {
+            removeFromIndex(checkedOutByDueDate, book.getDueDate(), book);
+        }
+    }
+
+    // Circulation changes go through these so the holdings, due date and checked out title indexes follow the book
+    private void markCheckedOut(Book book, LocalDate checkoutDate, LocalDate dueDate) {
+        unindexDueDate(book);
+        if (book.isAvailable()) {
+            String titleKey = normalizeTitle(book.getTitle());
+            booksByTitle.get(titleKey).copyCheckedOut(book);
+            titlesCheckedOut.add(titleKey);
+        }
+        book.setAvailable(false);
+        book.setCheckoutDate(checkoutDate);
+        book.setDueDate(dueDate);
+        indexDueDate(book);
+    }
+
+    private void markCheckedIn(Book book) {
+        unindexDueDate(book);
+        if (!book.isAvailable()) {
+            String titleKey = normalizeTitle(book.getTitle());
+            TitleHoldings holdings = booksByTitle.get(titleKey);
+            holdings.copyCheckedIn(book);
+            if (holdings.nextCheckedOut() == null) {
+                titlesCheckedOut.remove(titleKey);
+            }
+        }
+        book.setAvailable(true);
+        book.setCheckoutDate(null);
+        book.setDueDate(null);
+    }
+
+    private void clearIndexes() {
+        booksByBarcode.clear();
+        booksById.clear();
+        booksByTitle.clear();
+        checkedOutByDueDate.clear();
+        titlesCheckedOut.clear();
+        searchIndex = null;
+    }
+
+    private static <K> void removeFromIndex(Map<K, List<Book>> index, K key, Book book) {
+        List<Book> bucket = index.get(key);
+        if (bucket != null) {
+            bucket.remove(book);
+            if (bucket.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static Book first(List<Book> bucket) {
+        return bucket == null || bucket.isEmpty() ? null : bucket.get(0);
+    }
+
+    /**
+     * Getter method for the list of books.
+     * The list is a copy, in the order the books are saved, so adding to it or removing from
+     * it does not change the library; use the library's methods so its indexes stay in step.
+     * @return The list of books in the library.
+     */
+    public ArrayList<Book> getBooks() {
+        return new ArrayList<>(bookList);
+    }
+
+    /**
+     * Read-only view of the book list that drops removed books before it is read.
+     */
+    private class BookList extends AbstractList<Book> implements RandomAccess {
+        @Override
+        public Book get(int index) {
+            compactBooks();
+            return books.get(index);
+        }
+
+        @Override
+        public int size() {
+            return books.size() - removedBooks.size();
+        }
+    }
+
+    /**
+     * Method to read one page of the books in ascending order by book ID.
+     * Only the requested part of the ID index is read, so a late page costs no more than the
+     * first. Books with the same ID always land on the same page, so a page may hold a few
+     * more than limit books when IDs repeat.
+     * @param afterId Start after this ID, or null for the first page.
+     * @param limit The number of books wanted.
+     * @return The books of the page; the next page starts after the last one's ID.
+     */
+    public List<Book> booksAfterId(Integer afterId, int limit) {
+        Map<Integer, List<Book>> range = afterId == null ? booksById : booksById.tailMap(afterId, false);
+        List<Book> page = new ArrayList<>(Math.max(0, Math.min(limit, bookList.size())));
+        for (List<Book> bucket : range.values()) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.addAll(bucket);
+        }
+        return page;
+    }
+
+    /**
+     * Method to view the books in ascending order by book ID.
+     * The view reads the ID index directly: nothing is copied or sorted, and it reflects
+     * later changes. Books with the same ID keep the order they were added in.
+     * @return A read-only view of all books ordered by ID.
+     */
+    public Collection<Book> booksInIdOrder() {
+        return new BucketView(booksById.values(), false);
+    }
+
+    /**
+     * Method to view the books in alphabetical order by title, ignoring case.
+     * Like booksInIdOrder() the view is live and nothing is copied or sorted.
+     * @return A read-only view of all books ordered by normalized title.
+     */
+    public Collection<Book> booksInTitleOrder() {
+        return new BucketView(booksByTitle.values(), false);
+    }
+
+    /**
+     * Method to view the checked out books in order of due date, earliest first.
+     * Available books and checked out books without a due date are not included.
+     * Like booksInIdOrder() the view is live and nothing is copied or sorted.
+     * @return A read-only view of checked out books ordered by due date.
+     */
+    public Collection<Book> checkedOutBooksByDueDate() {
+        return new BucketView(checkedOutByDueDate.values(), true);
+    }
+
+    /**
+     * Read-only collection over the buckets of a sorted index, in key order.
+     */
+    private class BucketView extends AbstractCollection<Book> {
+        private final Collection<? extends List<Book>> buckets;
+        private final boolean partial;
+
+        BucketView(Collection<? extends List<Book>> buckets, boolean partial) {
+            this.buckets = buckets;
+            this.partial = partial;
+        }
+
+        @Override
+        public Iterator<Book> iterator() {
+            Iterator<? extends List<Book>> bucketIterator = buckets.iterator();
+            return new Iterator<>() {
+                private Iterator<Book> current = Collections.emptyIterator();
+
+                @Override
+                public boolean hasNext() {
+                    while (!current.hasNext() && bucketIterator.hasNext()) {
+                        current = bucketIterator.next().iterator();
+                    }
+                    return current.hasNext();
+                }
+
+                @Override
+                public Book next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return current.next();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            if (!partial) {
+                return bookList.size(); // every book is in exactly one bucket
+            }
+            int size = 0;
+            for (List<Book> bucket : buckets) {
+                size += bucket.size();
+            }
+            return size;
+        }
+    }
+}
\ No newline at end of file
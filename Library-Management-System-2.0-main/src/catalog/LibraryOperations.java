@@ -0,0 +1,259 @@
+package catalog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: LibraryOperations
+ * Description: Runs every operation on a Library on one background thread and returns a
+ * CompletableFuture for its result. Library is not thread-safe, so confining it to a single
+ * thread keeps it consistent while the Swing event dispatch thread stays free; operations
+ * run in the order they were submitted. Once a Library is handed to this class, only touch
+ * it through submit(). Handle results on the event dispatch thread with
+ * whenCompleteAsync(..., SwingUtilities::invokeLater). Each operation first reloads the
+ * books if another program changed the store (Library.reloadIfChangedElsewhere()), so
+ * programs sharing an SQLite database see each other's changes.
+ */
+public class LibraryOperations {
+    private final Library library;
+    private final ExecutorService executor;
+
+    // Write-behind (see enableWriteBehind); flushScheduled is only used on the operations thread
+    private ScheduledExecutorService flushTimer;
+    private long writeBehindMillis;
+    private boolean flushScheduled;
+
+    /**
+     * Constructor for the LibraryOperations class.
+     * @param library The library to operate on; from now on it belongs to the operations thread.
+     */
+    public LibraryOperations(Library library) {
+        this.library = library;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "library-operations"));
+    }
+
+    /**
+     * Method to run any operation on the library's thread.
+     * @param operation The operation; it may use the library freely.
+     * @return A future completed with the operation's result.
+     */
+    public <T> CompletableFuture<T> submit(Function<Library, T> operation) {
+        return CompletableFuture.supplyAsync(() -> {
+            library.reloadIfChangedElsewhere();
+            T result = operation.apply(library);
+            scheduleFlushIfNeeded();
+            return result;
+        }, executor);
+    }
+
+    /**
+     * Method to save changes behind the operations instead of after each one. The first
+     * change starts a timer; when it fires, everything changed in the meantime is saved in
+     * one write. A crash can lose at most the changes of the last delay.
+     * @param delayMillis How long to collect changes before saving them.
+     * @return A future completed when write-behind is on.
+     */
+    public CompletableFuture<Void> enableWriteBehind(long delayMillis) {
+        return submit(library -> {
+            if (flushTimer == null) {
+                flushTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "library-write-behind");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            writeBehindMillis = delayMillis;
+            library.setWriteBehind(true);
+            return null;
+        });
+    }
+
+    // Runs on the operations thread after every operation
+    private void scheduleFlushIfNeeded() {
+        if (flushTimer == null || flushScheduled || !library.hasPendingChanges()) {
+            return;
+        }
+        flushScheduled = true;
+        flushTimer.schedule(() -> submit(library -> {
+            flushScheduled = false;
+            library.flush();
+            return null;
+        }), writeBehindMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Method to add a book to the library.
+     * @param book The book to add.
+     * @return A future completed with true when the book has been added and saved, or
+     *         false if it could not be saved.
+     */
+    public CompletableFuture<Boolean> addBook(Book book) {
+        return submit(library -> library.addBook(book));
+    }
+
+    /**
+     * Method to remove a book by its barcode.
+     * @param barcode The barcode of the book to remove.
+     * @return A future completed with true if a book was removed.
+     */
+    public CompletableFuture<Boolean> removeBookByBarcode(String barcode) {
+        return submit(library -> {
+            Book book = library.findBookByBarcode(barcode);
+            return book != null && library.removeBook(book);
+        });
+    }
+
+    /**
+     * Method to remove a book by its title, ignoring case.
+     * @param title The title of the book to remove.
+     * @return A future completed with true if a book was removed.
+     */
+    public CompletableFuture<Boolean> removeBookByTitle(String title) {
+        return submit(library -> {
+            Book book = library.findBookByTitleIgnoreCase(title);
+            return book != null && library.removeBook(book);
+        });
+    }
+
+    /**
+     * Method to check out a book by its title.
+     * @param title The title of the book to check out.
+     * @return A future completed with the checked out book, or null if not found or not available.
+     */
+    public CompletableFuture<Book> checkOutBook(String title) {
+        return submit(library -> library.checkOutBook(title));
+    }
+
+    /**
+     * Method to check in a book by its title.
+     * @param title The title of the book to check in.
+     * @return A future completed with true if the book was checked in.
+     */
+    public CompletableFuture<Boolean> checkInBook(String title) {
+        return submit(library -> library.checkInBook(title));
+    }
+
+    /**
+     * Method to remove many books by barcode, saved once at the end.
+     * @param barcodes The barcodes of the books to remove.
+     * @return A future completed with the number of books removed.
+     */
+    public CompletableFuture<Integer> removeAllByBarcode(Collection<String> barcodes) {
+        List<String> copy = new ArrayList<>(barcodes);
+        return submit(library -> library.removeAllByBarcode(copy));
+    }
+
+    /**
+     * Method to check in many books by title, saved once at the end.
+     * @param titles The titles of the books to check in.
+     * @return A future completed with the number of books checked in.
+     */
+    public CompletableFuture<Integer> checkInAll(Collection<String> titles) {
+        List<String> copy = new ArrayList<>(titles);
+        return submit(library -> library.checkInAll(copy));
+    }
+
+    /**
+     * Method to import a books file. The file is parsed in parallel off the library thread,
+     * so other operations keep running meanwhile; the books are then merged in one step.
+     * @param file The file to import.
+     * @param progress Receives parsing progress on a background thread, or null.
+     * @return A future completed with the import result once the books are in the library.
+     */
+    public CompletableFuture<ParallelBookImporter.Result> importBooks(Path file, ParallelBookImporter.ProgressListener progress) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return new ParallelBookImporter().importFile(file, progress, FileCatalogStore::reportInvalidEntry);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).thenApplyAsync(result -> {
+            // Merge into the LMS library (file saved once)
+            if (!library.addAll(result.getBooks())) {
+                throw new IllegalStateException("The imported books could not be saved to " + library.getStore().getName());
+            }
+            scheduleFlushIfNeeded();
+            return result;
+        }, executor);
+    }
+
+    /**
+     * Method to copy the current books in ascending order by book ID, e.g. for display.
+     * Later changes to the library do not change the copy's order or size.
+     * @return A future completed with the copy.
+     */
+    public CompletableFuture<List<Book>> snapshot() {
+        return submit(library -> new ArrayList<>(library.booksInIdOrder()));
+    }
+
+    /**
+     * Method to find the overdue books, earliest due date first.
+     * @param today The current date; books due before it are overdue.
+     * @return A future completed with the overdue books.
+     */
+    public CompletableFuture<List<Book>> findOverdueBooks(LocalDate today) {
+        return submit(library -> library.findOverdueBooks(today));
+    }
+
+    /**
+     * Method to find the books due in the next days, earliest due date first.
+     * @param today The current date.
+     * @param days How many days ahead to look.
+     * @return A future completed with the books due from today to today plus days.
+     */
+    public CompletableFuture<List<Book>> findBooksDueWithin(LocalDate today, int days) {
+        return submit(library -> library.findBooksDueWithin(today, days));
+    }
+
+    /**
+     * Method to complete a partly typed title.
+     * @param prefix The start of the title; case and leading spaces are ignored.
+     * @param available true for titles with a copy on the shelf, false for titles with a copy checked out.
+     * @param limit The most titles to return.
+     * @return A future completed with the matching titles in alphabetical order.
+     */
+    public CompletableFuture<List<String>> completeTitles(String prefix, boolean available, int limit) {
+        return submit(library -> library.completeTitles(prefix, available, limit));
+    }
+
+    /**
+     * Method to search titles and authors by words.
+     * @param query The words to look for; the last may be partly typed.
+     * @param limit The maximum number of results.
+     * @return A future completed with the matching books, best match first.
+     */
+    public CompletableFuture<List<Book>> searchBooks(String query, int limit) {
+        return submit(library -> library.searchBooks(query, limit));
+    }
+
+    /**
+     * Method to finish queued operations, save anything write-behind still holds, close the
+     * library's store (folding the journal into the books file) and stop the thread.
+     * @return A future completed when everything is saved.
+     */
+    public CompletableFuture<Void> shutdown() {
+        CompletableFuture<Void> closed = submit(library -> {
+            library.setWriteBehind(false);
+            library.close();
+            if (flushTimer != null) {
+                flushTimer.shutdownNow();
+            }
+            return null;
+        });
+        executor.shutdown();
+        return closed;
+    }
+}
@@ -0,0 +1,77 @@
+package catalog;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.List;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: LibraryTableModel
+ * Description: Read-only JTable model over a list of books, normally a copy taken with
+ * LibraryOperations.snapshot(). Cells are read from the list when the table paints them,
+ * so only the visible rows are ever formatted and opening the view costs the same for
+ * 10 books or 500,000. Use it on the Swing thread and call setBooks() with a new copy
+ * to show later changes.
+ */
+public class LibraryTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+    private static final String[] COLUMNS = {"Book ID", "Title", "Author", "Barcode", "Status", "Due Date"};
+
+    private List<Book> books;
+
+    /**
+     * Constructor for the LibraryTableModel class.
+     * @param books The books to show; the list must not change while shown.
+     */
+    public LibraryTableModel(List<Book> books) {
+        this.books = books;
+    }
+
+    @Override
+    public int getRowCount() {
+        return books.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == 0 ? Integer.class : String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Book book = books.get(row);
+        switch (column) {
+            case 0:
+                return book.getId();
+            case 1:
+                return book.getTitle();
+            case 2:
+                return book.getAuthor();
+            case 3:
+                return book.getBarcode();
+            case 4:
+                return book.isAvailable() ? "Available" : "Checked out";
+            default:
+                return book.getDueDate() == null ? "" : book.getDueDate().toString();
+        }
+    }
+
+    /**
+     * Method to show a newer copy of the books.
+     * @param books The books to show; the list must not change while shown.
+     */
+    public void setBooks(List<Book> books) {
+        this.books = books;
+        fireTableDataChanged();
+    }
+}
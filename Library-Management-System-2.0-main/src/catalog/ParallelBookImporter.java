@@ -0,0 +1,254 @@
+package catalog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: ParallelBookImporter
+ * Description: Imports very large book files in parallel. The file is split into
+ * line-aligned byte ranges, each range is memory-mapped and parsed on a fork-join
+ * pool, and the results are returned in file order so they can be merged into
+ * a Library in one step (see Library.addAll).
+ */
+public class ParallelBookImporter {
+
+    /**
+     * Receives progress while an import runs. Called from pool threads.
+     */
+    public interface ProgressListener {
+        void progress(long bytesDone, long totalBytes);
+    }
+
+    /**
+     * Books parsed from a file, in file order, and the number of rejected lines.
+     */
+    public static final class Result {
+        private final List<Book> books;
+        private final int malformedLines;
+
+        Result(List<Book> books, int malformedLines) {
+            this.books = books;
+            this.malformedLines = malformedLines;
+        }
+
+        public List<Book> getBooks() {
+            return books;
+        }
+
+        public int getMalformedLines() {
+            return malformedLines;
+        }
+    }
+
+    private static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    /**
+     * Constructor for the ParallelBookImporter class, using the common pool and 8 MB chunks.
+     */
+    public ParallelBookImporter() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructor for the ParallelBookImporter class.
+     * @param pool The pool that parses chunks.
+     * @param chunkSize Target size of each byte range; ranges are extended to the next line break.
+     */
+    public ParallelBookImporter(ForkJoinPool pool, int chunkSize) {
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Method to parse a whole file in parallel.
+     * @param file The file in the Book.toFileString() format.
+     * @param progress Receives progress as chunks finish; may be null.
+     * @param handler Receives malformed lines with file-wide line numbers once parsing is done; may be null.
+     * @return The parsed books in file order.
+     * @throws IOException If the file cannot be read.
+     */
+    public Result importFile(Path file, ProgressListener progress, BookRecordParser.MalformedLineHandler handler)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long totalBytes = channel.size();
+            long[] boundaries = splitIntoLines(channel, totalBytes);
+            Chunk[] chunks = new Chunk[boundaries.length - 1];
+            for (int i = 0; i < chunks.length; i++) {
+                chunks[i] = new Chunk(boundaries[i], boundaries[i + 1]);
+            }
+
+            AtomicLong bytesDone = new AtomicLong();
+            try {
+                pool.invoke(new ParseChunks(channel, chunks, 0, chunks.length, bytesDone, totalBytes, progress));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            // Merge in file order; chunk line counts turn chunk-local line numbers into file line numbers
+            int total = 0;
+            for (Chunk chunk : chunks) {
+                total += chunk.books.size();
+            }
+            List<Book> books = new ArrayList<>(total);
+            long linesBefore = 0;
+            int malformed = 0;
+            for (Chunk chunk : chunks) {
+                books.addAll(chunk.books);
+                for (int i = 0; i < chunk.errorLines.size(); i++) {
+                    if (handler != null) {
+                        handler.malformedLine(linesBefore + chunk.errorLines.get(i), chunk.errorReasons.get(i));
+                    }
+                    malformed++;
+                }
+                linesBefore += chunk.lineCount;
+            }
+            return new Result(books, malformed);
+        }
+    }
+
+    /**
+     * Method to choose chunk boundaries, each moved forward to just past a line break.
+     * @return Ascending offsets starting at 0 and ending at totalBytes.
+     */
+    private long[] splitIntoLines(FileChannel channel, long totalBytes) throws IOException {
+        List<Long> offsets = new ArrayList<>();
+        offsets.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long next = chunkSize;
+        while (next < totalBytes) {
+            long lineEnd = -1;
+            long position = next;
+            while (lineEnd < 0 && position < totalBytes) {
+                probe.clear();
+                int read = channel.read(probe, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        lineEnd = position + i + 1;
+                        break;
+                    }
+                }
+                position += read;
+            }
+            if (lineEnd < 0 || lineEnd >= totalBytes) {
+                break;
+            }
+            offsets.add(lineEnd);
+            next = lineEnd + chunkSize;
+        }
+        offsets.add(totalBytes);
+        long[] boundaries = new long[offsets.size()];
+        for (int i = 0; i < boundaries.length; i++) {
+            boundaries[i] = offsets.get(i);
+        }
+        return boundaries;
+    }
+
+    /**
+     * One line-aligned byte range and what was parsed from it.
+     */
+    private static final class Chunk {
+        final long start;
+        final long end;
+        final List<Book> books = new ArrayList<>();
+        final List<Long> errorLines = new ArrayList<>();
+        final List<String> errorReasons = new ArrayList<>();
+        long lineCount;
+
+        Chunk(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        void parse(FileChannel channel) throws IOException {
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            BookRecordParser parser = new BookRecordParser((lineNumber, reason) -> {
+                errorLines.add(lineNumber);
+                errorReasons.add(reason);
+            });
+            int limit = data.limit();
+            int lineStart = 0;
+            for (int i = 0; i < limit; i++) {
+                if (data.get(i) == '\n') {
+                    addIfValid(parser.parseLine(data, lineStart, i, ++lineCount));
+                    lineStart = i + 1;
+                }
+            }
+            if (lineStart < limit) {
+                addIfValid(parser.parseLine(data, lineStart, limit, ++lineCount));
+            }
+        }
+
+        private void addIfValid(Book book) {
+            if (book != null) {
+                books.add(book);
+            }
+        }
+    }
+
+    /**
+     * Splits the chunk array in halves until one chunk is left, then parses it.
+     */
+    private static final class ParseChunks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final Chunk[] chunks;
+        private final int from;
+        private final int to;
+        private final AtomicLong bytesDone;
+        private final long totalBytes;
+        private final ProgressListener progress;
+
+        ParseChunks(FileChannel channel, Chunk[] chunks, int from, int to, AtomicLong bytesDone, long totalBytes,
+                    ProgressListener progress) {
+            this.channel = channel;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.bytesDone = bytesDone;
+            this.totalBytes = totalBytes;
+            this.progress = progress;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ParseChunks(channel, chunks, from, middle, bytesDone, totalBytes, progress),
+                        new ParseChunks(channel, chunks, middle, to, bytesDone, totalBytes, progress));
+                return;
+            }
+            if (to == from) {
+                return;
+            }
+            Chunk chunk = chunks[from];
+            try {
+                chunk.parse(channel);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            long done = bytesDone.addAndGet(chunk.end - chunk.start);
+            if (progress != null) {
+                progress.progress(done, totalBytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package catalog;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: StringPool
+ * Description: Deduplicated table of strings addressed by int references.
+ * Each distinct string is stored once; callers keep the 4-byte reference
+ * instead of a String pointer per record. Strings can also be interned straight
+ * from encoded bytes (see BookRecordParser), so a repeated value is decoded once.
+ */
+public class StringPool {
+    private String[] strings = new String[256];
+    private int size;
+
+    // Open-addressing hash table of (reference + 1); 0 marks an empty slot
+    private int[] slots = new int[512];
+
+    // The bytes each string was interned from, and a table like slots over them;
+    // only allocated once intern(byte[], ...) is used
+    private byte[][] encoded;
+    private int[] encodedSlots;
+    private int encodedCount;
+
+    /**
+     * Method to add a string to the pool, or find it if it is already there.
+     * @param value The string to store; null is not allowed.
+     * @return The reference of the stored string.
+     */
+    public int intern(String value) {
+        int mask = slots.length - 1;
+        int slot = mix(value.hashCode()) & mask;
+        while (slots[slot] != 0) {
+            int reference = slots[slot] - 1;
+            if (strings[reference].equals(value)) {
+                return reference;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == strings.length) {
+            strings = Arrays.copyOf(strings, size * 2);
+        }
+        strings[size] = value;
+        slots[slot] = size + 1;
+        size++;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return size - 1;
+    }
+
+    /**
+     * Method to add a string given as encoded bytes, or find it if it is already there.
+     * Bytes seen before are matched without decoding them again.
+     * @param bytes The encoded string starts at index 0; the array is only read during the call.
+     * @param length The number of bytes.
+     * @param charset The encoding of the bytes.
+     * @return The reference of the stored string.
+     */
+    public int intern(byte[] bytes, int length, Charset charset) {
+        if (encodedSlots == null) {
+            encoded = new byte[strings.length][];
+            encodedSlots = new int[512];
+        }
+        int hash = 1;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + bytes[i]; // same as Arrays.hashCode, used by rehashEncoded
+        }
+        int mask = encodedSlots.length - 1;
+        int slot = mix(hash) & mask;
+        while (encodedSlots[slot] != 0) {
+            byte[] key = encoded[encodedSlots[slot] - 1];
+            if (Arrays.equals(key, 0, key.length, bytes, 0, length)) {
+                return encodedSlots[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        byte[] key = Arrays.copyOf(bytes, length);
+        int reference = intern(new String(key, charset));
+        if (encoded.length < strings.length) {
+            encoded = Arrays.copyOf(encoded, strings.length);
+        }
+        // Other bytes may already decode to this string (e.g. malformed input); keep the first
+        if (encoded[reference] == null) {
+            encoded[reference] = key;
+            encodedSlots[slot] = reference + 1;
+            if (++encodedCount * 2 > encodedSlots.length) {
+                rehashEncoded();
+            }
+        }
+        return reference;
+    }
+
+    /**
+     * Method to get a pooled string.
+     * @param reference A reference returned by intern.
+     * @return The string.
+     */
+    public String get(int reference) {
+        return strings[reference];
+    }
+
+    /**
+     * Method to get the number of distinct strings in the pool.
+     * @return The number of strings.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int reference = 0; reference < size; reference++) {
+            int slot = mix(strings[reference].hashCode()) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = reference + 1;
+        }
+    }
+
+    private void rehashEncoded() {
+        encodedSlots = new int[encodedSlots.length * 2];
+        int mask = encodedSlots.length - 1;
+        for (int reference = 0; reference < size; reference++) {
+            if (encoded[reference] != null) {
+                int slot = mix(Arrays.hashCode(encoded[reference])) & mask;
+                while (encodedSlots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                encodedSlots[slot] = reference + 1;
+            }
+        }
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,168 @@
+package catalog;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: TitleHoldings
+ * Description: The copies the library holds of one title (titles compared ignoring case and
+ * surrounding spaces). Each copy is its own Book with its own barcode and state. Besides the
+ * copies in the order they were added, the holdings keep the copies on the shelf and the
+ * checked out copies as two stacks, so taking or returning a copy by title and counting
+ * what is available need no scan.
+ * As a list this is a read-only view of the copies; the Library changes it as books are
+ * added, removed, checked out and checked in.
+ */
+public class TitleHoldings extends AbstractList<Book> implements RandomAccess {
+    private final ArrayList<Book> copies = new ArrayList<>(1);
+    // Created when first needed: most titles have a single copy
+    private ArrayList<Book> onShelf;
+    private ArrayList<Book> checkedOut;
+
+    /**
+     * Getter method for the title as saved on the first copy.
+     * @return The title, or null if there are no copies.
+     */
+    public String getTitle() {
+        return copies.isEmpty() ? null : copies.get(0).getTitle();
+    }
+
+    /**
+     * Getter method for the number of copies held.
+     * @return The number of copies, on the shelf or not.
+     */
+    public int getCopyCount() {
+        return copies.size();
+    }
+
+    /**
+     * Getter method for the number of copies on the shelf.
+     * @return The number of copies that can be checked out.
+     */
+    public int getAvailableCount() {
+        return onShelf == null ? 0 : onShelf.size();
+    }
+
+    /**
+     * Method to get a copy that can be checked out.
+     * @return An available copy, or null if every copy is checked out.
+     */
+    public Book nextAvailable() {
+        return top(onShelf);
+    }
+
+    /**
+     * Method to get a copy that is checked out.
+     * @return A checked out copy, or null if every copy is on the shelf.
+     */
+    public Book nextCheckedOut() {
+        return top(checkedOut);
+    }
+
+    @Override
+    public Book get(int index) {
+        return copies.get(index);
+    }
+
+    @Override
+    public int size() {
+        return copies.size();
+    }
+
+    /**
+     * Method to add a copy, on the shelf or checked out according to the book.
+     * @param book The copy to add.
+     */
+    void addCopy(Book book) {
+        copies.add(book);
+        if (book.isAvailable()) {
+            onShelf = push(onShelf, book);
+        } else {
+            checkedOut = push(checkedOut, book);
+        }
+    }
+
+    /**
+     * Method to remove a copy.
+     * @param book The copy to remove.
+     * @return true if the copy was held, false otherwise.
+     */
+    boolean removeCopy(Book book) {
+        int index = indexOf(copies, book);
+        if (index < 0) {
+            return false;
+        }
+        copies.remove(index);
+        if (!remove(onShelf, book)) {
+            remove(checkedOut, book);
+        }
+        return true;
+    }
+
+    /**
+     * Method to record that a copy was checked out.
+     * O(1) for the copy returned by nextAvailable(), otherwise a scan of this title's copies.
+     * @param book The copy that was checked out.
+     */
+    void copyCheckedOut(Book book) {
+        if (remove(onShelf, book)) {
+            checkedOut = push(checkedOut, book);
+        }
+    }
+
+    /**
+     * Method to record that a copy was checked in.
+     * O(1) for the copy returned by nextCheckedOut(), otherwise a scan of this title's copies.
+     * @param book The copy that was checked in.
+     */
+    void copyCheckedIn(Book book) {
+        if (remove(checkedOut, book)) {
+            onShelf = push(onShelf, book);
+        }
+    }
+
+    private static Book top(ArrayList<Book> stack) {
+        return stack == null || stack.isEmpty() ? null : stack.get(stack.size() - 1);
+    }
+
+    private static ArrayList<Book> push(ArrayList<Book> stack, Book book) {
+        if (stack == null) {
+            stack = new ArrayList<>(1);
+        }
+        stack.add(book);
+        return stack;
+    }
+
+    // Removes the top without a scan; other copies are looked for from the top down
+    private static boolean remove(ArrayList<Book> stack, Book book) {
+        int index = stack == null ? -1 : lastIndexOf(stack, book);
+        if (index < 0) {
+            return false;
+        }
+        stack.remove(index);
+        return true;
+    }
+
+    // Copies are compared by identity: the data files may hold identical rows
+    private static int indexOf(List<Book> list, Book book) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == book) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(List<Book> list, Book book) {
+        for (int i = list.size() - 1; i >= 0; i--) {
+            if (list.get(i) == book) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,253 @@
+package catalog;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: TitleSearchIndex
+ * Description: Inverted index over the words of book titles and authors for the search
+ * dialog. Text is split into lower case words (letters and digits; apostrophes dropped),
+ * so "The Catcher in the Rye " and "catcher rye" find the same book. Each query word
+ * matches a whole indexed word or, failing that, the start of one, and a book must match
+ * every query word. Results are ranked by where the words matched (title before author,
+ * whole word before prefix), then by shorter title. Candidates come from the most selective
+ * query word only, so a query costs about as much as its rarest word has books.
+ */
+public class TitleSearchIndex {
+    // Caps the work for very broad queries such as a single letter
+    private static final int MAX_CANDIDATES = 5_000;
+
+    private static final int TITLE_WORD = 8;
+    private static final int TITLE_PREFIX = 4;
+    private static final int AUTHOR_WORD = 2;
+    private static final int AUTHOR_PREFIX = 1;
+
+    // A word's books are kept in a list until there are this many, then in an identity set,
+    // so removing a book from a common word's postings does not scan them all
+    private static final int SET_THRESHOLD = 16;
+
+    // Word -> books containing it in the title or author (each book once per word)
+    private final NavigableMap<String, Collection<Book>> postings = new TreeMap<>();
+
+    /**
+     * Method to add a book to the index.
+     * @param book The book to add.
+     */
+    public void add(Book book) {
+        for (String word : wordsOf(book)) {
+            Collection<Book> books = postings.get(word);
+            if (books == null) {
+                books = new ArrayList<>(1);
+                postings.put(word, books);
+            } else if (books.size() == SET_THRESHOLD && books instanceof List) {
+                Collection<Book> set = Collections.newSetFromMap(new IdentityHashMap<>());
+                set.addAll(books);
+                books = set;
+                postings.put(word, books);
+            }
+            books.add(book);
+        }
+    }
+
+    /**
+     * Method to remove a book from the index.
+     * The book's title and author must be the ones it was added with.
+     * @param book The book to remove.
+     */
+    public void remove(Book book) {
+        for (String word : wordsOf(book)) {
+            Collection<Book> books = postings.get(word);
+            if (books != null) {
+                books.remove(book);
+                if (books.isEmpty()) {
+                    postings.remove(word);
+                }
+            }
+        }
+    }
+
+    /**
+     * Method to find the books best matching a query.
+     * @param query Words to look for in titles and authors; the last may be partly typed.
+     * @param limit The maximum number of results.
+     * @return The matching books, best match first.
+     */
+    public List<Book> search(String query, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        // Read candidates from the query word that matches the fewest books
+        String drivingTerm = terms.get(0);
+        int fewest = Integer.MAX_VALUE;
+        for (String term : terms) {
+            int matches = countMatches(term, fewest);
+            if (matches < fewest) {
+                fewest = matches;
+                drivingTerm = term;
+            }
+        }
+        if (fewest == 0) {
+            return new ArrayList<>();
+        }
+
+        // Keep the best `limit` matches: the heap's head is the worst of them
+        Map<Book, Integer> scores = new HashMap<>();
+        Comparator<Book> byRank = Comparator.<Book>comparingInt(scores::get)
+                .thenComparing(book -> -book.getTitle().length())
+                .thenComparing(Book::getTitle, Comparator.reverseOrder());
+        PriorityQueue<Book> best = new PriorityQueue<>(limit + 1, byRank);
+        Set<Book> seen = new HashSet<>();
+        for (Collection<Book> books : candidateLists(drivingTerm)) {
+            for (Book candidate : books) {
+                if (seen.size() >= MAX_CANDIDATES) {
+                    break;
+                }
+                if (!seen.add(candidate)) {
+                    continue;
+                }
+                int score = score(candidate, terms);
+                if (score == 0) {
+                    continue;
+                }
+                scores.put(candidate, score);
+                if (best.size() < limit) {
+                    best.add(candidate);
+                } else if (byRank.compare(candidate, best.peek()) > 0) {
+                    scores.remove(best.poll());
+                    best.add(candidate);
+                } else {
+                    scores.remove(candidate);
+                }
+            }
+        }
+        List<Book> results = new ArrayList<>(best);
+        results.sort(byRank.reversed());
+        return results;
+    }
+
+    /**
+     * Method to split text into lower case words of letters and digits.
+     * @param text The text to split; null gives no words.
+     * @return The words in order, including repeats.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (c != '\'' && c != '\u2019' && word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (word.length() > 0) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    private static Set<String> wordsOf(Book book) {
+        Set<String> words = new LinkedHashSet<>(tokenize(book.getTitle()));
+        words.addAll(tokenize(book.getAuthor()));
+        return words;
+    }
+
+    // Number of postings for a term (whole word plus prefix), counting no further than `stopAt`
+    private int countMatches(String term, int stopAt) {
+        int count = 0;
+        for (Collection<Book> books : prefixRange(term).values()) {
+            count += books.size();
+            if (count >= stopAt) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    // Postings of the term as a whole word first, then of the longer words it starts
+    private List<Collection<Book>> candidateLists(String term) {
+        List<Collection<Book>> lists = new ArrayList<>();
+        Collection<Book> exact = postings.get(term);
+        if (exact != null) {
+            lists.add(exact);
+        }
+        lists.addAll(prefixRange(term).tailMap(term, false).values());
+        return lists;
+    }
+
+    private NavigableMap<String, Collection<Book>> prefixRange(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    // Sum of each term's best match in the book, or 0 if some term does not match
+    private static int score(Book book, List<String> terms) {
+        int total = 0;
+        for (String term : terms) {
+            int best = match(book.getTitle(), term, TITLE_WORD, TITLE_PREFIX);
+            if (best < TITLE_WORD) {
+                best = Math.max(best, match(book.getAuthor(), term, AUTHOR_WORD, AUTHOR_PREFIX));
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    // Finds the term among the words of text the way tokenize() splits them, without copying
+    private static int match(String text, String term, int wordScore, int prefixScore) {
+        if (text == null) {
+            return 0;
+        }
+        int best = 0;
+        int matched = -1; // term characters matched in the current word; -1 after a mismatch
+        boolean inWord = false;
+        boolean longer = false;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (!inWord) {
+                    inWord = true;
+                    matched = 0;
+                    longer = false;
+                }
+                if (matched == term.length()) {
+                    longer = true;
+                } else if (matched >= 0) {
+                    matched = Character.toLowerCase(c) == term.charAt(matched) ? matched + 1 : -1;
+                }
+            } else if (c != '\'' && c != '\u2019' && inWord) {
+                if (matched == term.length()) {
+                    if (!longer) {
+                        return wordScore;
+                    }
+                    best = prefixScore;
+                }
+                inWord = false;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,40 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: Counter
+ * Description: A count that only goes up, e.g. rejected lines in a books file. Backed by a
+ * LongAdder, so threads counting at the same time do not contend, and counting never allocates.
+ */
+public class Counter {
+    private final LongAdder count = new LongAdder();
+
+    Counter() {
+    }
+
+    /**
+     * Method to count one occurrence.
+     */
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * Method to count several occurrences.
+     * @param amount The number to add.
+     */
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    /**
+     * Getter method for the count.
+     * @return The number of occurrences so far.
+     */
+    public long get() {
+        return count.sum();
+    }
+}
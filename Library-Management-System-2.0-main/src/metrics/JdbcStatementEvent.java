@@ -0,0 +1,18 @@
+package metrics;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: JdbcStatementEvent
+ * Description: Java Flight Recorder event for one SQL statement run by the JDBC book
+ * repository. The statement field names it, e.g. "check_out".
+ */
+@Name("library.JdbcStatement")
+@Label("JDBC Statement")
+public class JdbcStatementEvent extends OperationEvent {
+    @Label("Statement")
+    public String statement;
+}
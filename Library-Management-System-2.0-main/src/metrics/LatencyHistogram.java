@@ -0,0 +1,112 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: LatencyHistogram
+ * Description: Lock-free latency histogram in the style of HdrHistogram. Values are counted
+ * in log-linear buckets: exact below 128 ns, then 64 buckets per power of two, so any
+ * recorded value is known to within 1/64 (about 1.6%) from 1 ns up to Long.MAX_VALUE ns,
+ * in a fixed array of 3,712 counters. Recording is a few shifts and one atomic add, and
+ * never allocates. Reads may run while values are recorded; they then see some of the
+ * new values but never an inconsistent single counter.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // per power of two
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Method to record one latency.
+     * @param nanos The latency in nanoseconds; negative values count as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts.incrementAndGet(indexOf(value));
+        totalNanos.add(value);
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Getter method for the number of recorded values.
+     * @return The count, summed over the buckets.
+     */
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Getter method for the sum of the recorded values.
+     * @return The total in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Getter method for the largest recorded value.
+     * @return The maximum in nanoseconds, 0 if nothing was recorded.
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Method to estimate a percentile of the recorded values.
+     * @param percentile The percentile, from 0 to 100.
+     * @return The highest value of the bucket holding that percentile (at most the maximum),
+     *         in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValueAt(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    // Values below 2 * SUB_BUCKETS map to themselves; above that, the top SUB_BUCKET_BITS + 1
+    // bits of the value select the bucket within its power of two
+    static int indexOf(long value) {
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    static long highestValueAt(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = index - ((long) shift << SUB_BUCKET_BITS);
+        long highest = ((subBucket + 1) << shift) - 1;
+        return highest < 0 ? Long.MAX_VALUE : highest; // the last bucket ends at Long.MAX_VALUE
+    }
+}
@@ -0,0 +1,53 @@
+package metrics;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the histogram's bucket precision and percentiles and the Prometheus rendering.
+ */
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Every value falls in a bucket at most 1/64 wide")
+    void testBuckets() {
+        for (long value = 0; value < 1_000_000; value += 7) {
+            int index = LatencyHistogram.indexOf(value);
+            long highest = LatencyHistogram.highestValueAt(index);
+            assertTrue(value <= highest, "value " + value);
+            assertTrue(highest - value <= value / 64, "value " + value);
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValueAt(LatencyHistogram.indexOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    @DisplayName("Percentiles, maximum and totals")
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500_500_000L, histogram.getTotalNanos());
+        assertEquals(1_000_000, histogram.getMaxNanos());
+        assertEquals(500_000, histogram.getValueAtPercentile(50), 500_000 / 64.0);
+        assertEquals(990_000, histogram.getValueAtPercentile(99), 990_000 / 64.0);
+        assertEquals(1_000_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    @DisplayName("Timers and counters are rendered in the Prometheus text format")
+    void testRender() {
+        Timer timer = Metrics.timer("test.render", LibraryEvents.Lookup::new);
+        assertSame(timer, Metrics.timer("test.render", LibraryEvents.Lookup::new));
+        timer.stop(timer.start());
+        Metrics.counter("test.render_events").add(3);
+
+        String text = Metrics.render();
+        assertTrue(text.contains("# TYPE test_render_seconds summary\n"));
+        assertTrue(text.contains("test_render_seconds{quantile=\"0.99\"} "));
+        assertTrue(text.contains("test_render_seconds_count 1\n"));
+        assertTrue(text.contains("test_render_events_total 3\n"));
+    }
+}
@@ -0,0 +1,61 @@
+package metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: LibraryEvents
+ * Description: The Java Flight Recorder event types for Library operations, one per kind of
+ * operation, so a recording can enable, filter and chart each one on its own.
+ */
+public final class LibraryEvents {
+    private LibraryEvents() {
+    }
+
+    @Name("library.Lookup")
+    @Label("Library Lookup")
+    @Description("A book found by title, barcode or ID")
+    public static final class Lookup extends OperationEvent {
+    }
+
+    @Name("library.Search")
+    @Label("Library Search")
+    @Description("A word search over titles and authors")
+    public static final class Search extends OperationEvent {
+    }
+
+    @Name("library.Checkout")
+    @Label("Library Checkout")
+    public static final class Checkout extends OperationEvent {
+    }
+
+    @Name("library.Checkin")
+    @Label("Library Checkin")
+    public static final class Checkin extends OperationEvent {
+    }
+
+    @Name("library.Add")
+    @Label("Library Add")
+    public static final class Add extends OperationEvent {
+    }
+
+    @Name("library.Remove")
+    @Label("Library Remove")
+    public static final class Remove extends OperationEvent {
+    }
+
+    @Name("library.Load")
+    @Label("Library Load")
+    @Description("The books file (or its snapshot) read into memory")
+    public static final class Load extends OperationEvent {
+    }
+
+    @Name("library.Save")
+    @Label("Library Save")
+    @Description("The books file rewritten, or the journal compacted into it")
+    public static final class Save extends OperationEvent {
+    }
+}
@@ -0,0 +1,138 @@
+package metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: Metrics
+ * Description: Registry of the application's timers and counters. Classes register theirs
+ * once, in static fields, and record into them directly. The registry can render every
+ * metric in the Prometheus text format (served at /metrics by CirculationHttpServer) and
+ * can write that text to a file periodically: run with -Dmetrics.file=metrics.txt, and
+ * optionally -Dmetrics.periodSeconds=N (default 60).
+ */
+public final class Metrics {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final long DEFAULT_DUMP_SECONDS = 60;
+
+    private static final Map<String, Timer> TIMERS = new ConcurrentSkipListMap<>();
+    private static final Map<String, Counter> COUNTERS = new ConcurrentSkipListMap<>();
+    private static ScheduledExecutorService dumper;
+
+    private Metrics() {
+    }
+
+    /**
+     * Method to get the timer with a name, creating it on first use.
+     * @param name The timer's name, e.g. "library.checkout".
+     * @param events Creates the flight recorder event for one call; the type must be the same every time.
+     * @return The timer.
+     */
+    public static Timer timer(String name, Supplier<? extends OperationEvent> events) {
+        return TIMERS.computeIfAbsent(name, key -> new Timer(key, events));
+    }
+
+    /**
+     * Method to get the counter with a name, creating it on first use.
+     * @param name The counter's name, e.g. "library.invalid_entries".
+     * @return The counter.
+     */
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, key -> new Counter());
+    }
+
+    /**
+     * Method to render every metric in the Prometheus text exposition format.
+     * Timers become summaries in seconds (with a _max gauge), counters get a _total suffix.
+     * @return The text, one metric sample per line.
+     */
+    public static String render() {
+        StringBuilder text = new StringBuilder();
+        for (Timer timer : TIMERS.values()) {
+            String name = metricName(timer.getName()) + "_seconds";
+            LatencyHistogram histogram = timer.getHistogram();
+            text.append("# TYPE ").append(name).append(" summary\n");
+            for (double quantile : QUANTILES) {
+                text.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                        .append(seconds(histogram.getValueAtPercentile(quantile * 100))).append('\n');
+            }
+            text.append(name).append("_sum ").append(seconds(histogram.getTotalNanos())).append('\n');
+            text.append(name).append("_count ").append(histogram.getCount()).append('\n');
+            text.append("# TYPE ").append(name).append("_max gauge\n");
+            text.append(name).append("_max ").append(seconds(histogram.getMaxNanos())).append('\n');
+        }
+        for (Map.Entry<String, Counter> entry : COUNTERS.entrySet()) {
+            String name = metricName(entry.getKey()) + "_total";
+            text.append("# TYPE ").append(name).append(" counter\n");
+            text.append(name).append(' ').append(entry.getValue().get()).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Method to write render() to a file, replacing it in one step so readers never see half a dump.
+     * @param file The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeTo(Path file) throws IOException {
+        Path temp = Path.of(file + ".tmp");
+        Files.writeString(temp, render(), StandardCharsets.UTF_8);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Method to write the metrics to a file every period, on a background thread, and once
+     * more when the program exits. Later calls change nothing.
+     * @param file The file to write.
+     * @param periodSeconds How often to write it.
+     */
+    public static synchronized void startFileDump(Path file, long periodSeconds) {
+        if (dumper != null) {
+            return;
+        }
+        dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleAtFixedRate(() -> dump(file), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> dump(file)));
+    }
+
+    /**
+     * Method to start the file dump if -Dmetrics.file is set, for the programs' main methods.
+     */
+    public static void startFileDumpIfConfigured() {
+        String file = System.getProperty("metrics.file");
+        if (file != null && !file.isBlank()) {
+            startFileDump(Path.of(file), Long.getLong("metrics.periodSeconds", DEFAULT_DUMP_SECONDS));
+        }
+    }
+
+    private static void dump(Path file) {
+        try {
+            writeTo(file);
+        } catch (IOException e) {
+            System.out.println("Error writing metrics: " + e.getMessage());
+        }
+    }
+
+    private static String metricName(String name) {
+        return name.replace('.', '_').replace('-', '_');
+    }
+
+    private static String seconds(long nanos) {
+        return String.valueOf(nanos / 1e9);
+    }
+}
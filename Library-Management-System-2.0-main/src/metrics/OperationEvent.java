@@ -0,0 +1,24 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: OperationEvent
+ * Description: Base of the Java Flight Recorder events written by a Timer, one event type per
+ * kind of operation (see LibraryEvents and JdbcStatementEvent). The time taken is a field
+ * rather than the event's own duration, because the event is only created once the
+ * operation is over, and only while a recording has the type enabled.
+ */
+@Category("Library Management System")
+@StackTrace(false)
+public abstract class OperationEvent extends Event {
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    public long elapsed;
+}
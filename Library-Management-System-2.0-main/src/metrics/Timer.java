@@ -0,0 +1,68 @@
+package metrics;
+
+import jdk.jfr.EventType;
+
+import java.util.function.Supplier;
+
+/*
+ * Author: Candy Torres
+ * Course: Software Development I - CEN 3024C
+ * Class Name: Timer
+ * Description: Times one kind of operation: every call is counted and its latency recorded
+ * in a LatencyHistogram, and while a Java Flight Recorder recording has the timer's event
+ * type enabled, each call is also written as an event. Use it as
+ *     long start = TIMER.start();
+ *     ... the operation ...
+ *     TIMER.stop(start);
+ * Without a recording this allocates nothing.
+ */
+public class Timer {
+    private final String name;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final Supplier<? extends OperationEvent> events;
+    private final EventType eventType;
+
+    Timer(String name, Supplier<? extends OperationEvent> events) {
+        this.name = name;
+        this.events = events;
+        this.eventType = EventType.getEventType(events.get().getClass());
+    }
+
+    /**
+     * Method to mark the start of an operation.
+     * @return The start time, to pass to stop().
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Method to record an operation that began at start().
+     * @param startNanos The value start() returned.
+     */
+    public void stop(long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        histogram.record(elapsed);
+        if (eventType.isEnabled()) {
+            OperationEvent event = events.get();
+            event.elapsed = elapsed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Getter method for the timer's name, e.g. "library.checkout".
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Getter method for the recorded latencies.
+     * @return The histogram; its count is the number of calls.
+     */
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+}